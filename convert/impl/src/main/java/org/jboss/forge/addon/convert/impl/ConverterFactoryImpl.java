@@ -7,6 +7,13 @@
 
 package org.jboss.forge.addon.convert.impl;
 
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -15,17 +22,61 @@ import org.jboss.forge.addon.convert.ConverterFactory;
 import org.jboss.forge.addon.convert.ConverterGenerator;
 import org.jboss.forge.addon.convert.exception.ConverterNotFoundException;
 import org.jboss.forge.furnace.addons.AddonRegistry;
+import org.jboss.forge.furnace.event.PostStartup;
+import org.jboss.forge.furnace.event.PreShutdown;
 import org.jboss.forge.furnace.services.Imported;
 
+/**
+ * Looks up {@link Converter} instances. Lookups are memoized per source and target type until an addon starts or
+ * stops, since either may change the available {@link ConverterGenerator} services.
+ */
 @Singleton
 public class ConverterFactoryImpl implements ConverterFactory
 {
+   private static final Object NOT_FOUND = new Object();
+
    @Inject
    private AddonRegistry registry;
 
+   private final ConcurrentMap<ConverterKey, Object> converters = new ConcurrentHashMap<ConverterKey, Object>();
+
+   public void addonStarted(@Observes PostStartup event)
+   {
+      converters.clear();
+   }
+
+   public void addonStopped(@Observes PreShutdown event)
+   {
+      converters.clear();
+   }
+
    @Override
    @SuppressWarnings({ "unchecked" })
    public <S, T> Converter<S, T> getConverter(Class<S> source, Class<T> target)
+   {
+      ConverterKey key = new ConverterKey(source, target);
+      Object result = converters.get(key);
+      if (result == null)
+      {
+         try
+         {
+            result = createConverter(source, target);
+         }
+         catch (ConverterNotFoundException e)
+         {
+            result = NOT_FOUND;
+         }
+         converters.putIfAbsent(key, result);
+      }
+      if (result == NOT_FOUND)
+      {
+         throw new ConverterNotFoundException(source, target);
+      }
+      return (Converter<S, T>) result;
+   }
+
+   @SuppressWarnings({ "unchecked" })
+   private <S, T> Converter<S, T> createConverter(Class<S> source, Class<T> target)
    {
       Converter<S, T> result = null;
       Imported<ConverterGenerator> instances = registry.getServices(ConverterGenerator.class);
@@ -56,13 +107,15 @@ public class ConverterFactoryImpl implements ConverterFactory
          {
             try
             {
-               result = new MethodConverter<S, T>(source, target, null, target.getMethod("valueOf", source));
+               Method valueOf = target.getMethod("valueOf", source);
+               result = new MethodConverter<S, T>(source, target, null, accessible(valueOf));
             }
             catch (NoSuchMethodException noValueOf)
             {
                try
                {
-                  result = new ConstructorConverter<S, T>(source, target, target.getConstructor(source));
+                  Constructor<T> constructor = target.getConstructor(source);
+                  result = new ConstructorConverter<S, T>(source, target, accessible(constructor));
                }
                catch (NoSuchMethodException noConstructor)
                {
@@ -74,4 +127,47 @@ public class ConverterFactoryImpl implements ConverterFactory
       }
       return result;
    }
-}
\ No newline at end of file
+
+   /**
+    * Skip the access checks of every reflective call made by the converter.
+    */
+   private static <A extends AccessibleObject> A accessible(A member)
+   {
+      try
+      {
+         member.setAccessible(true);
+      }
+      catch (SecurityException e)
+      {
+         // Still usable, only slower
+      }
+      return member;
+   }
+
+   private static class ConverterKey
+   {
+      private final Class<?> source;
+      private final Class<?> target;
+
+      public ConverterKey(Class<?> source, Class<?> target)
+      {
+         this.source = source;
+         this.target = target;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return 31 * source.hashCode() + target.hashCode();
+      }
+
+      @Override
+      public boolean equals(Object obj)
+      {
+         if (!(obj instanceof ConverterKey))
+            return false;
+         ConverterKey other = (ConverterKey) obj;
+         return source == other.source && target == other.target;
+      }
+   }
+}
@@ -11,6 +11,7 @@ import javax.inject.Inject;
 
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.forge.addon.convert.exception.ConverterNotFoundException;
 import org.jboss.forge.arquillian.AddonDependency;
 import org.jboss.forge.arquillian.Dependencies;
 import org.jboss.forge.arquillian.archive.ForgeArchive;
@@ -51,6 +52,9 @@ public class CDIConverterTest
    @Inject
    private Converter<Boolean, Boolean> noopConverter;
 
+   @Inject
+   private ConverterFactory converterFactory;
+
    @Test
    public void testNotNull() throws Exception
    {
@@ -83,4 +87,26 @@ public class CDIConverterTest
 
    }
 
+   @Test
+   public void testConverterLookupIsMemoized()
+   {
+      Converter<String, Long> first = converterFactory.getConverter(String.class, Long.class);
+      Converter<String, Long> second = converterFactory.getConverter(String.class, Long.class);
+      Assert.assertSame(first, second);
+      Assert.assertEquals(Long.valueOf(42), second.convert("42"));
+   }
+
+   @Test(expected = ConverterNotFoundException.class)
+   public void testMissingConverterIsReportedAgain()
+   {
+      try
+      {
+         converterFactory.getConverter(Long.class, Thread.class);
+         Assert.fail("Should not find a converter");
+      }
+      catch (ConverterNotFoundException e)
+      {
+         converterFactory.getConverter(Long.class, Thread.class);
+      }
+   }
 }
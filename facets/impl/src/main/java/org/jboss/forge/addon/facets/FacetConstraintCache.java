@@ -0,0 +1,146 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.facets;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Singleton;
+
+import org.jboss.forge.addon.facets.constraints.FacetConstraint;
+import org.jboss.forge.addon.facets.constraints.FacetInspector;
+import org.jboss.forge.furnace.event.PostStartup;
+import org.jboss.forge.furnace.event.PreShutdown;
+
+/**
+ * Holds the {@link FacetConstraint} metadata of each {@link Facet} type, as read by {@link FacetInspector}, so that it
+ * is computed once per type rather than on every installation or registration. Cleared whenever an addon starts or
+ * stops, so that no type of a removed addon is retained.
+ */
+@Singleton
+class FacetConstraintCache
+{
+   private final ConcurrentMap<Class<?>, Metadata> metadata = new ConcurrentHashMap<Class<?>, Metadata>();
+
+   public void addonStarted(@Observes PostStartup event)
+   {
+      metadata.clear();
+   }
+
+   public void addonStopped(@Observes PreShutdown event)
+   {
+      metadata.clear();
+   }
+
+   /**
+    * Return the {@link Metadata} of the given {@link Facet} type.
+    */
+   public Metadata get(Class<?> type)
+   {
+      Metadata result = metadata.get(type);
+      if (result == null)
+      {
+         result = new Metadata(type);
+         Metadata existing = metadata.putIfAbsent(type, result);
+         if (existing != null)
+            result = existing;
+      }
+      return result;
+   }
+
+   /**
+    * The constraint metadata of a single {@link Facet} type.
+    */
+   class Metadata
+   {
+      private final Set<Class<?>> requiredFacets;
+      private final Set<Class<?>> allRelatedFacets;
+      private final Set<Class<?>> assignableTypes;
+      private volatile Boolean circular;
+
+      @SuppressWarnings({ "unchecked", "rawtypes" })
+      private Metadata(Class<?> type)
+      {
+         this.requiredFacets = Collections.unmodifiableSet(new LinkedHashSet<Class<?>>((Set) FacetInspector
+                  .getRequiredFacets(type)));
+         this.allRelatedFacets = Collections.unmodifiableSet(new LinkedHashSet<Class<?>>((Set) FacetInspector
+                  .getAllRelatedFacets(type)));
+         this.assignableTypes = Collections.unmodifiableSet(getAssignableTypes(type));
+      }
+
+      /**
+       * See {@link FacetInspector#getRequiredFacets(Class)}.
+       */
+      public Set<Class<?>> getRequiredFacets()
+      {
+         return requiredFacets;
+      }
+
+      /**
+       * See {@link FacetInspector#getAllRelatedFacets(Class)}.
+       */
+      public Set<Class<?>> getAllRelatedFacets()
+      {
+         return allRelatedFacets;
+      }
+
+      /**
+       * Return every class and interface this type is assignable to, including itself.
+       */
+      public Set<Class<?>> getAssignableTypes()
+      {
+         return assignableTypes;
+      }
+
+      /**
+       * See {@link FacetInspector#hasCircularConstraints(Class)}.
+       */
+      public boolean hasCircularConstraints()
+      {
+         if (circular == null)
+         {
+            boolean result = false;
+            for (Class<?> requirement : allRelatedFacets)
+            {
+               for (Class<?> subrequirement : get(requirement).getAllRelatedFacets())
+               {
+                  if (subrequirement.isAssignableFrom(requirement))
+                  {
+                     result = true;
+                     break;
+                  }
+               }
+            }
+            circular = result;
+         }
+         return circular;
+      }
+
+      private Set<Class<?>> getAssignableTypes(Class<?> type)
+      {
+         Set<Class<?>> result = new HashSet<Class<?>>();
+         LinkedList<Class<?>> queue = new LinkedList<Class<?>>();
+         queue.add(type);
+         while (!queue.isEmpty())
+         {
+            Class<?> current = queue.removeFirst();
+            if (current != null && result.add(current))
+            {
+               queue.add(current.getSuperclass());
+               Collections.addAll(queue, current.getInterfaces());
+            }
+         }
+         return result;
+      }
+   }
+}
@@ -9,7 +9,6 @@ package org.jboss.forge.addon.facets;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
@@ -34,6 +33,9 @@ public class FacetFactoryImpl implements FacetFactory
    @Inject
    private AddonRegistry registry;
 
+   @Inject
+   private FacetConstraintCache constraints;
+
    @Override
    public <FACETEDTYPE extends Faceted<?>, FACETTYPE extends Facet<FACETEDTYPE>> FACETTYPE create(
             FACETEDTYPE origin, Class<FACETTYPE> type)
@@ -135,13 +137,13 @@ public class FacetFactoryImpl implements FacetFactory
       Assert.notNull(origin, "Origin instance must not be null.");
       Assert.notNull(facet, "Facet instance must not be null.");
 
-      Set<Class<FACETTYPE>> seen = new LinkedHashSet<Class<FACETTYPE>>();
+      Set<Class<?>> seen = new HashSet<Class<?>>();
       return install(seen, origin, facet, filter);
    }
 
    @SuppressWarnings({ "rawtypes", "unchecked" })
    private <FACETEDTYPE extends Faceted<?>, FACETTYPE extends Facet<FACETEDTYPE>> boolean install(
-            Set<Class<FACETTYPE>> seen, FACETEDTYPE origin, FACETTYPE facet, Predicate<FACETTYPE> filter)
+            Set<Class<?>> seen, FACETEDTYPE origin, FACETTYPE facet, Predicate<FACETTYPE> filter)
    {
       if (filter == null)
          filter = new Predicate<FACETTYPE>()
@@ -153,11 +155,12 @@ public class FacetFactoryImpl implements FacetFactory
             }
          };
 
-      if (FacetInspector.hasCircularConstraints(facet.getClass()))
+      FacetConstraintCache.Metadata metadata = constraints.get(facet.getClass());
+      if (metadata.hasCircularConstraints())
          throw new IllegalStateException("Circular dependencies detected in @" + FacetConstraint.class.getSimpleName()
                   + " annotation located at [" + facet.getClass().getName() + "]");
 
-      seen.add((Class<FACETTYPE>) facet.getClass());
+      seen.addAll(metadata.getAssignableTypes());
       Faceted<FACETTYPE> faceted = (Faceted<FACETTYPE>) origin;
       Assert.isTrue(faceted instanceof MutableFaceted, "The given origin [" + origin + "] is not an instance of ["
                + MutableFaceted.class.getName() + "], and does not support " + Facet.class.getSimpleName()
@@ -177,21 +180,11 @@ public class FacetFactoryImpl implements FacetFactory
        */
       register(origin, facet);
 
-      Set<Class<FACETTYPE>> requiredFacets = FacetInspector.getRequiredFacets(facet.getClass());
+      Set<Class<FACETTYPE>> requiredFacets = (Set) metadata.getRequiredFacets();
       List<Class<FACETTYPE>> facetsToInstall = new ArrayList<Class<FACETTYPE>>();
       for (Class<FACETTYPE> requirementType : requiredFacets)
       {
-         boolean isSeen = false;
-         for (Class<FACETTYPE> seenType : seen)
-         {
-            if (requirementType.isAssignableFrom(seenType))
-            {
-               isSeen = true;
-               break;
-            }
-         }
-
-         if (!isSeen && !origin.hasFacet((Class) requirementType))
+         if (!seen.contains(requirementType) && !origin.hasFacet((Class) requirementType))
          {
             facetsToInstall.add(requirementType);
          }
@@ -241,19 +234,20 @@ public class FacetFactoryImpl implements FacetFactory
       Assert.notNull(origin, "Origin instance must not be null.");
       Assert.notNull(facet, "Facet instance must not be null.");
 
-      Set<Class<FACETTYPE>> seen = new LinkedHashSet<Class<FACETTYPE>>();
+      Set<Class<?>> seen = new HashSet<Class<?>>();
       return register(seen, origin, facet);
    }
 
    @SuppressWarnings({ "rawtypes", "unchecked" })
    private <FACETEDTYPE extends Faceted<?>, FACETTYPE extends Facet<FACETEDTYPE>> boolean register(
-            Set<Class<FACETTYPE>> seen, FACETEDTYPE origin, FACETTYPE facet)
+            Set<Class<?>> seen, FACETEDTYPE origin, FACETTYPE facet)
    {
-      if (FacetInspector.hasCircularConstraints(facet.getClass()))
+      FacetConstraintCache.Metadata metadata = constraints.get(facet.getClass());
+      if (metadata.hasCircularConstraints())
          throw new IllegalStateException("Circular dependencies detected in @" + FacetConstraint.class.getSimpleName()
                   + " annotation located at [" + facet.getClass().getName() + "]");
 
-      seen.add((Class<FACETTYPE>) facet.getClass());
+      seen.addAll(metadata.getAssignableTypes());
       Faceted<FACETTYPE> faceted = (Faceted<FACETTYPE>) origin;
       Assert.isTrue(faceted instanceof MutableFaceted, "The given origin [" + origin + "] is not an instance of ["
                + MutableFaceted.class.getName() + "], and does not support " + Facet.class.getSimpleName()
@@ -268,22 +262,12 @@ public class FacetFactoryImpl implements FacetFactory
                + MutableFaceted.class.getName() + "], and does not support " + Facet.class.getSimpleName()
                + " installation.");
 
-      Set<Class<FACETTYPE>> relatedFacets = FacetInspector.getAllRelatedFacets(facet.getClass());
+      Set<Class<FACETTYPE>> relatedFacets = (Set) metadata.getAllRelatedFacets();
 
       List<Class<FACETTYPE>> facetsToRegister = new ArrayList<Class<FACETTYPE>>();
       for (Class<FACETTYPE> relatedType : relatedFacets)
       {
-         boolean isSeen = false;
-         for (Class<FACETTYPE> seenType : seen)
-         {
-            if (relatedType.isAssignableFrom(seenType))
-            {
-               isSeen = true;
-               break;
-            }
-         }
-
-         if (!isSeen && !origin.hasFacet((Class) relatedType))
+         if (!seen.contains(relatedType) && !origin.hasFacet((Class) relatedType))
          {
             facetsToRegister.add(relatedType);
          }
@@ -16,13 +16,12 @@ import javax.persistence.Entity;
 
 import org.jboss.forge.addon.javaee.AbstractJavaEEFacet;
 import org.jboss.forge.addon.parser.java.facets.JavaSourceFacet;
-import org.jboss.forge.addon.parser.java.resources.JavaResource;
-import org.jboss.forge.addon.parser.java.resources.JavaResourceVisitor;
+import org.jboss.forge.addon.parser.java.facets.JavaTypeSummary;
+import org.jboss.forge.addon.parser.java.utils.AnnotatedTypes;
 import org.jboss.forge.addon.projects.dependencies.DependencyInstaller;
 import org.jboss.forge.addon.projects.facets.ResourcesFacet;
 import org.jboss.forge.addon.resource.DirectoryResource;
 import org.jboss.forge.addon.resource.FileResource;
-import org.jboss.forge.addon.resource.visit.VisitContext;
 import org.jboss.forge.parser.java.JavaClass;
 import org.jboss.forge.parser.java.JavaSource;
 import org.jboss.shrinkwrap.descriptor.api.persistence.PersistenceCommonDescriptor;
@@ -99,27 +98,23 @@ public abstract class AbstractJPAFacetImpl<DESCRIPTOR extends PersistenceCommonD
    @Override
    public List<JavaClass> getAllEntities()
    {
-      final List<JavaClass> result = new ArrayList<JavaClass>();
+      List<JavaClass> result = new ArrayList<JavaClass>();
       JavaSourceFacet javaSourceFacet = getFaceted().getFacet(JavaSourceFacet.class);
-      javaSourceFacet.visitJavaSources(new JavaResourceVisitor()
+      for (JavaTypeSummary type : AnnotatedTypes.getTypesAnnotatedWith(javaSourceFacet, Entity.class.getName()))
       {
-         @Override
-         public void visit(VisitContext context, JavaResource resource)
+         try
          {
-            try
+            JavaSource<?> javaClass = type.getResource().getJavaSource();
+            if (javaClass.isClass())
             {
-               JavaSource<?> javaClass = resource.getJavaSource();
-               if (javaClass.hasAnnotation(Entity.class) && javaClass.isClass())
-               {
-                  result.add((JavaClass) javaClass);
-               }
-            }
-            catch (FileNotFoundException e)
-            {
-               throw new IllegalStateException(e);
+               result.add((JavaClass) javaClass);
             }
          }
-      });
+         catch (FileNotFoundException e)
+         {
+            throw new IllegalStateException(e);
+         }
+      }
 
       return result;
    }
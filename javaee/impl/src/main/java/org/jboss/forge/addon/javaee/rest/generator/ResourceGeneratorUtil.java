@@ -6,6 +6,8 @@
  */
 package org.jboss.forge.addon.javaee.rest.generator;
 
+import java.util.List;
+
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.ManyToMany;
@@ -15,6 +17,8 @@ import javax.persistence.OneToOne;
 
 import org.jboss.forge.addon.javaee.rest.generation.RestGenerationContext;
 import org.jboss.forge.addon.parser.java.facets.JavaSourceFacet;
+import org.jboss.forge.addon.parser.java.facets.JavaTypeSummary;
+import org.jboss.forge.addon.parser.java.utils.AnnotatedTypes;
 import org.jboss.forge.addon.projects.Project;
 import org.jboss.forge.parser.java.Annotation;
 import org.jboss.forge.parser.java.Field;
@@ -37,24 +41,33 @@ public class ResourceGeneratorUtil
       Project project = context.getProject();
       String proposedQualifiedClassName = packageName + "." + entityTable + "Endpoint";
       String proposedResourcePath = "/" + context.getInflector().pluralize(entityTable.toLowerCase());
-      RestResourceTypeVisitor resourceTypeVisitor = new RestResourceTypeVisitor();
-      resourceTypeVisitor.setFound(false);
-      resourceTypeVisitor.setProposedPath(proposedResourcePath);
       JavaSourceFacet facet = project.getFacet(JavaSourceFacet.class);
+      List<JavaTypeSummary> resourceTypes = AnnotatedTypes.getTypesAnnotatedWith(facet, "javax.ws.rs.Path");
       while (true)
       {
-         facet.visitJavaSources(resourceTypeVisitor);
-         if (resourceTypeVisitor.isFound())
+         JavaTypeSummary match = null;
+         for (JavaTypeSummary type : resourceTypes)
+         {
+            String path = type.getAnnotationValue("javax.ws.rs.Path");
+            if (path != null)
+            {
+               String absolutePath = path.endsWith("/") ? path.substring(0, path.lastIndexOf('/')) : path;
+               if (absolutePath.equals(proposedResourcePath))
+               {
+                  match = type;
+                  break;
+               }
+            }
+         }
+         if (match != null)
          {
-            if (proposedQualifiedClassName.equals(resourceTypeVisitor.getQualifiedClassNameForMatch()))
+            if (proposedQualifiedClassName.equals(match.getQualifiedName()))
             {
                // The class might be overwritten later, so break out
                break;
             }
             proposedResourcePath = proposedResourcePath.startsWith("/") ? "forge" + proposedResourcePath : "forge/"
                      + proposedResourcePath;
-            resourceTypeVisitor.setProposedPath(proposedResourcePath);
-            resourceTypeVisitor.setFound(false);
          }
          else
          {
@@ -7,6 +7,8 @@
 
 package org.jboss.forge.addon.javaee;
 
+import java.util.List;
+
 import javax.inject.Inject;
 
 import org.jboss.arquillian.container.test.api.Deployment;
@@ -16,7 +18,9 @@ import org.jboss.forge.addon.javaee.jpa.JPAFacet;
 import org.jboss.forge.addon.javaee.jpa.JPAFacet_2_0;
 import org.jboss.forge.addon.parser.java.facets.JavaCompilerFacet;
 import org.jboss.forge.addon.parser.java.facets.JavaSourceFacet;
+import org.jboss.forge.addon.parser.java.facets.JavaTypeSummary;
 import org.jboss.forge.addon.parser.java.resources.JavaResource;
+import org.jboss.forge.addon.parser.java.utils.AnnotatedTypes;
 import org.jboss.forge.addon.projects.Project;
 import org.jboss.forge.addon.projects.building.BuildException;
 import org.jboss.forge.addon.projects.facets.DependencyFacet;
@@ -29,6 +33,7 @@ import org.jboss.forge.arquillian.AddonDependency;
 import org.jboss.forge.arquillian.Dependencies;
 import org.jboss.forge.arquillian.archive.ForgeArchive;
 import org.jboss.forge.furnace.repositories.AddonDependencyEntry;
+import org.jboss.forge.parser.java.JavaClass;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.junit.Assert;
 import org.junit.Test;
@@ -134,4 +139,64 @@ public class ProjectHelperTest
       Assert.assertNotNull(build);
       Assert.assertTrue("Build artifact does not exist", build.exists());
    }
-}
\ No newline at end of file
+
+   @Test
+   public void testJPAEntitiesAreIndexed() throws Exception
+   {
+      Project project = projectHelper.createWebProject();
+      JPAFacet_2_0 jpa = projectHelper.installJPA_2_0(project);
+      JavaSourceFacet java = project.getFacet(JavaSourceFacet.class);
+      Assert.assertTrue(AnnotatedTypes.getTypesAnnotatedWith(java, "javax.persistence.Entity").isEmpty());
+
+      JavaResource customer = projectHelper.createJPAEntity(project, "Customer");
+      projectHelper.createJPAEntity(project, "Product");
+      List<JavaTypeSummary> entities = AnnotatedTypes.getTypesAnnotatedWith(java, "javax.persistence.Entity");
+      Assert.assertEquals(2, entities.size());
+      Assert.assertEquals(2, jpa.getAllEntities().size());
+
+      customer.delete();
+      entities = AnnotatedTypes.getTypesAnnotatedWith(java, "javax.persistence.Entity");
+      Assert.assertEquals(1, entities.size());
+      Assert.assertTrue(entities.get(0).getQualifiedName().endsWith(".Product"));
+   }
+
+   @Test
+   public void testIndexMatchesAnnotationsLikeHasAnnotation() throws Exception
+   {
+      Project project = projectHelper.createWebProject();
+      JavaSourceFacet java = project.getFacet(JavaSourceFacet.class);
+      java.getJavaResource("org.example.Wildcard").setContents(
+               "package org.example; import javax.persistence.*; @Entity public class Wildcard {}");
+      java.getJavaResource("org.example.Local").setContents(
+               "package org.example; @Entity public class Local {}");
+      java.getTestJavaResource("org.example.Fixture").setContents(
+               "package org.example; import javax.persistence.Entity; @Entity public class Fixture {}");
+
+      List<JavaTypeSummary> entities = AnnotatedTypes.getTypesAnnotatedWith(java, "javax.persistence.Entity");
+      Assert.assertEquals(2, entities.size());
+      for (JavaTypeSummary entity : entities)
+      {
+         Assert.assertTrue(entity.getResource().getJavaSource().hasAnnotation("javax.persistence.Entity"));
+      }
+
+      entities = AnnotatedTypes.getTestTypesAnnotatedWith(java, "javax.persistence.Entity");
+      Assert.assertEquals(1, entities.size());
+      Assert.assertEquals("org.example.Fixture", entities.get(0).getQualifiedName());
+   }
+
+   @Test
+   public void testIndexSeesInPlaceEdits() throws Exception
+   {
+      Project project = projectHelper.createWebProject();
+      projectHelper.installJPA_2_0(project);
+      JavaSourceFacet java = project.getFacet(JavaSourceFacet.class);
+      JavaResource customer = projectHelper.createJPAEntity(project, "Customer");
+      Assert.assertEquals(1, AnnotatedTypes.getTypesAnnotatedWith(java, "javax.persistence.Entity").size());
+
+      // Written without saveJavaSource, and without changing the directory
+      JavaClass entity = (JavaClass) customer.getJavaSource();
+      entity.removeAnnotation(entity.getAnnotation("javax.persistence.Entity"));
+      customer.setContents(entity);
+      Assert.assertTrue(AnnotatedTypes.getTypesAnnotatedWith(java, "javax.persistence.Entity").isEmpty());
+   }
+}
@@ -15,6 +15,7 @@ import org.jboss.forge.addon.maven.resources.MavenPomResource;
 import org.jboss.forge.addon.projects.BuildSystemFacet;
 import org.jboss.forge.addon.projects.Project;
 import org.jboss.forge.addon.projects.ProjectFacet;
+import org.jboss.forge.addon.projects.facets.BatchFacet;
 import org.jboss.forge.addon.resource.DirectoryResource;
 
 /**
@@ -22,7 +23,7 @@ import org.jboss.forge.addon.resource.DirectoryResource;
  * 
  * @author <a href="mailto:lincolnbaxter@gmail.com">Lincoln Baxter, III</a>
  */
-public interface MavenFacet extends BuildSystemFacet
+public interface MavenFacet extends BuildSystemFacet, BatchFacet
 {
    /**
     * Get the {@link MavenPomResource} for this {@link Project}.
@@ -35,7 +36,9 @@ public interface MavenFacet extends BuildSystemFacet
    Model getPOM();
 
    /**
-    * Set the current Maven {@link Model} for this {@link Project}.
+    * Set the current Maven {@link Model} for this {@link Project}. Inside a batch (see {@link BatchFacet}), the
+    * {@link Model} is only recorded in memory and {@link #getPOM()} returns it until the batch ends; the POM file is
+    * written and the project model rebuilt once, on the outermost commit.
     */
    void setPOM(Model pom);
 
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.projects;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.FutureTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jboss.forge.addon.projects.building.BuildListener;
+
+/**
+ * Turns the console output of a Maven build into {@link BuildListener} events. Output is received through the streams
+ * returned by {@link #getOutputStream(boolean)}; once the build is cancelled, any further write or flush fails with a
+ * {@link CancellationException}, which stops both embedded and native builds at their next output.
+ *
+ * Modules are tracked per writing thread, so that the output of modules built concurrently (with <code>-T</code>) is
+ * credited to the module each thread is building. Output read from a single stream, as with native builds, is credited
+ * to the module announced last.
+ */
+class BuildProgress
+{
+   private static final Pattern MODULE_STARTED = Pattern
+            .compile("^\\[INFO\\] Building ([^:]+?)(?: \\S+)?(?: \\[\\d+/\\d+\\])?$");
+   private static final Pattern TESTS_COMPLETED = Pattern
+            .compile("^(?:\\[(?:INFO|WARNING|ERROR)\\] )?Tests run: (\\d+), Failures: (\\d+), Errors: (\\d+), Skipped: (\\d+)$");
+
+   private final BuildListener listener;
+   private final Map<Thread, String> modules = new HashMap<Thread, String>();
+   private final List<String> started = new ArrayList<String>();
+   private volatile boolean cancelled;
+
+   /**
+    * A build writing its output to the given streams.
+    */
+   interface Build<T>
+   {
+      T run(PrintStream out, PrintStream err) throws Exception;
+   }
+
+   public BuildProgress(BuildListener listener)
+   {
+      this.listener = listener;
+   }
+
+   /**
+    * Return a {@link FutureTask} running the given {@link Build} with output reported to this {@link BuildProgress}.
+    * Cancelling the task makes further output fail and interrupts the build thread, and reports every module still
+    * running as failed.
+    */
+   public <T> FutureTask<T> createTask(final Build<T> build)
+   {
+      return new FutureTask<T>(new Callable<T>()
+      {
+         @Override
+         public T call() throws Exception
+         {
+            PrintStream out = new PrintStream(getOutputStream(false), true);
+            PrintStream err = new PrintStream(getOutputStream(true), true);
+            boolean success = false;
+            try
+            {
+               T result = build.run(out, err);
+               success = true;
+               return result;
+            }
+            finally
+            {
+               if (!cancelled)
+               {
+                  out.close();
+                  err.close();
+               }
+               finish(success);
+            }
+         }
+      })
+      {
+         @Override
+         public boolean cancel(boolean mayInterruptIfRunning)
+         {
+            BuildProgress.this.cancel();
+            return super.cancel(true);
+         }
+      };
+   }
+
+   /**
+    * Return a new {@link OutputStream} reporting each line written to it.
+    */
+   public OutputStream getOutputStream(boolean error)
+   {
+      return new LineOutputStream(error);
+   }
+
+   /**
+    * Make further output fail, so that the build stops as soon as possible.
+    */
+   public void cancel()
+   {
+      cancelled = true;
+   }
+
+   /**
+    * Report the end of every module still being built.
+    */
+   public synchronized void finish(boolean success)
+   {
+      for (String module : started)
+      {
+         listener.moduleFinished(module, success);
+      }
+      started.clear();
+      modules.clear();
+   }
+
+   private synchronized void line(String line, boolean error)
+   {
+      listener.output(line, error);
+
+      Thread thread = Thread.currentThread();
+      Matcher matcher = MODULE_STARTED.matcher(line);
+      if (matcher.matches())
+      {
+         String previous = modules.put(thread, matcher.group(1));
+         if (previous != null && started.remove(previous))
+         {
+            listener.moduleFinished(previous, true);
+         }
+         started.add(matcher.group(1));
+         listener.moduleStarted(matcher.group(1));
+         return;
+      }
+
+      matcher = TESTS_COMPLETED.matcher(line);
+      if (matcher.matches())
+      {
+         String module = modules.get(thread);
+         if (module == null && !started.isEmpty())
+            module = started.get(started.size() - 1);
+         listener.testsCompleted(module, Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                  Integer.parseInt(matcher.group(3)), Integer.parseInt(matcher.group(4)));
+      }
+   }
+
+   private class LineOutputStream extends OutputStream
+   {
+      private final boolean error;
+      private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+
+      public LineOutputStream(boolean error)
+      {
+         this.error = error;
+      }
+
+      @Override
+      public synchronized void write(int b)
+      {
+         if (cancelled)
+            throw new CancellationException("Build cancelled");
+
+         if (b == '\n')
+            emit();
+         else if (b != '\r')
+            buffer.write(b);
+      }
+
+      @Override
+      public synchronized void write(byte[] b, int off, int len)
+      {
+         if (cancelled)
+            throw new CancellationException("Build cancelled");
+
+         int start = off;
+         for (int i = off; i < off + len; i++)
+         {
+            if (b[i] == '\n')
+            {
+               append(b, start, i);
+               emit();
+               start = i + 1;
+            }
+         }
+         append(b, start, off + len);
+      }
+
+      @Override
+      public void flush()
+      {
+         if (cancelled)
+            throw new CancellationException("Build cancelled");
+      }
+
+      @Override
+      public synchronized void close()
+      {
+         if (buffer.size() > 0)
+            emit();
+      }
+
+      private void append(byte[] b, int from, int to)
+      {
+         if (to > from && b[to - 1] == '\r')
+            to--;
+         if (to > from)
+            buffer.write(b, from, to - from);
+      }
+
+      private void emit()
+      {
+         String result = buffer.toString();
+         buffer.reset();
+         line(result, error);
+      }
+   }
+}
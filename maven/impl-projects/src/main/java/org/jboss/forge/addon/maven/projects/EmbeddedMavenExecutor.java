@@ -0,0 +1,589 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.projects;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Singleton;
+
+import org.apache.maven.Maven;
+import org.apache.maven.cli.CLIReportingUtils;
+import org.apache.maven.execution.AbstractExecutionListener;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionRequestPopulator;
+import org.apache.maven.execution.MavenExecutionResult;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.PluginArtifactsCache;
+import org.apache.maven.plugin.PluginDescriptorCache;
+import org.apache.maven.plugin.PluginRealmCache;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectRealmCache;
+import org.apache.maven.properties.internal.EnvironmentUtils;
+import org.apache.maven.settings.Settings;
+import org.codehaus.plexus.ContainerConfiguration;
+import org.codehaus.plexus.DefaultContainerConfiguration;
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.logging.AbstractLogger;
+import org.codehaus.plexus.logging.BaseLoggerManager;
+import org.codehaus.plexus.logging.Logger;
+import org.jboss.forge.addon.maven.projects.plexus.DefaultPlexusContainer;
+import org.jboss.forge.furnace.container.cdi.events.Local;
+import org.jboss.forge.furnace.event.PreShutdown;
+import org.jboss.forge.furnace.util.ClassLoaders;
+
+/**
+ * Runs Maven builds in long-lived Plexus containers, so that core components, plugin realms and plugin descriptors
+ * stay loaded between builds instead of being booted from scratch by a new {@link org.apache.maven.cli.MavenCli} on
+ * every invocation.
+ *
+ * Each build checks out a container of its own, so concurrent builds run in parallel rather than waiting for each
+ * other. Up to <code>maven.embedded.max.containers</code> idle containers (2 by default) are kept warm; builds beyond
+ * that use a container that is disposed afterwards.
+ *
+ * Only the command line options Forge itself passes to Maven are understood (see {@link #supports(String[])});
+ * callers should fall back to {@link org.apache.maven.cli.MavenCli} for anything else. Plugin caches are flushed when
+ * any POM of a reactor the container built before (modules and their local parents included) changed since, and a
+ * container is recycled every <code>maven.embedded.max.builds</code> builds (25 by default) to bound its memory use.
+ */
+@Singleton
+class EmbeddedMavenExecutor
+{
+   private static final int MAX_BUILDS = Integer.getInteger("maven.embedded.max.builds", 25);
+   private static final int MAX_CONTAINERS = Integer.getInteger("maven.embedded.max.containers", 2);
+
+   private final LinkedList<Worker> idle = new LinkedList<Worker>();
+   private boolean closed;
+
+   /**
+    * Return <code>true</code> if the given command line arguments can be handled by this executor.
+    */
+   public boolean supports(String[] args)
+   {
+      return Invocation.parse(args) != null;
+   }
+
+   /**
+    * Build the given POM with the given command line arguments, writing the build output to the given streams.
+    *
+    * @return the process-like exit code of the build: <code>0</code> on success
+    */
+   public int execute(final File pom, final Settings settings, final String[] args, final PrintStream out,
+            final PrintStream err)
+   {
+      final Invocation invocation = Invocation.parse(args);
+      if (invocation == null)
+         throw new IllegalArgumentException("Unsupported Maven arguments: " + Arrays.toString(args));
+
+      final Worker worker = checkout();
+      boolean reusable = false;
+      try
+      {
+         int result = ClassLoaders.executeIn(getClass().getClassLoader(), new Callable<Integer>()
+         {
+            @Override
+            public Integer call() throws Exception
+            {
+               return worker.execute(pom, settings, invocation, out, err);
+            }
+         });
+         reusable = true;
+         return result;
+      }
+      catch (Exception e)
+      {
+         CancellationException cancellation = getCancellation(e);
+         if (cancellation != null)
+            throw cancellation;
+         err.println("[ERROR] " + e.getMessage());
+         e.printStackTrace(err);
+         return 1;
+      }
+      finally
+      {
+         // A container that failed, or whose build was aborted, may be in an unknown state
+         checkin(worker, reusable && !Thread.currentThread().isInterrupted());
+      }
+   }
+
+   public void preShutdown(@Observes @Local PreShutdown event)
+   {
+      List<Worker> workers;
+      synchronized (this)
+      {
+         closed = true;
+         workers = new ArrayList<Worker>(idle);
+         idle.clear();
+      }
+      for (Worker worker : workers)
+      {
+         worker.dispose();
+      }
+   }
+
+   private synchronized Worker checkout()
+   {
+      Worker worker = idle.poll();
+      return worker == null ? new Worker() : worker;
+   }
+
+   private void checkin(Worker worker, boolean reusable)
+   {
+      synchronized (this)
+      {
+         if (reusable && !closed && worker.builds < MAX_BUILDS && idle.size() < MAX_CONTAINERS)
+         {
+            idle.addFirst(worker);
+            return;
+         }
+      }
+      worker.dispose();
+   }
+
+   /**
+    * Return the {@link CancellationException} that caused the given failure, if any.
+    */
+   private static CancellationException getCancellation(Throwable failure)
+   {
+      for (Throwable cause = failure; cause != null; cause = cause.getCause())
+      {
+         if (cause instanceof CancellationException)
+            return (CancellationException) cause;
+      }
+      return null;
+   }
+
+   private static File resolve(File baseDir, String path)
+   {
+      File file = new File(path);
+      if (!file.isAbsolute())
+         file = new File(baseDir, path);
+      if (file.isDirectory())
+         file = new File(file, "pom.xml");
+      return file;
+   }
+
+   /**
+    * A Plexus container used by one build at a time, with the loggers and POM stamps that belong to it.
+    */
+   private static class Worker
+   {
+      private final ForwardingLoggerManager loggerManager = new ForwardingLoggerManager();
+      private final PomStamps pomStamps = new PomStamps();
+      private DefaultPlexusContainer container;
+      private int builds;
+
+      public int execute(File pom, Settings settings, Invocation invocation, PrintStream out, PrintStream err)
+               throws Exception
+      {
+         DefaultPlexusContainer container = getContainer();
+
+         File target = invocation.pom == null ? pom : resolve(pom.getParentFile(), invocation.pom);
+         if (pomStamps.isModified())
+         {
+            flushCaches(container);
+            pomStamps.clear();
+         }
+
+         MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+         MavenExecutionRequestPopulator populator = container.lookup(MavenExecutionRequestPopulator.class);
+         populator.populateFromSettings(request, settings);
+
+         request.setSystemProperties(getSystemProperties());
+         request.setUserProperties(invocation.userProperties);
+         request.setPom(target);
+         request.setBaseDirectory(target.getParentFile());
+         request.setGoals(invocation.goals);
+         request.addActiveProfiles(invocation.activeProfiles);
+         request.addInactiveProfiles(invocation.inactiveProfiles);
+         request.setOffline(invocation.offline || settings.isOffline());
+         request.setUpdateSnapshots(invocation.updateSnapshots);
+         request.setRecursive(invocation.recursive);
+         request.setShowErrors(invocation.showErrors);
+         request.setLoggingLevel(invocation.loggingLevel);
+         request.setInteractiveMode(false);
+         if (invocation.threads != null)
+         {
+            // Modules of a reactor that do not depend on each other are built concurrently
+            request.setThreadCount(invocation.threads.replace("C", ""));
+            request.setPerCoreThreadCount(invocation.threads.contains("C"));
+         }
+         request.setStartTime(new Date());
+         request.setExecutionListener(new ProgressListener(out, invocation.loggingLevel));
+         populator.populateDefaults(request);
+
+         loggerManager.redirect(out, err, invocation.loggingLevel);
+         MavenExecutionResult result = null;
+         try
+         {
+            result = container.lookup(Maven.class).execute(request);
+            if (result.hasExceptions())
+            {
+               for (Throwable e : result.getExceptions())
+               {
+                  CancellationException cancellation = getCancellation(e);
+                  if (cancellation != null)
+                     throw cancellation;
+                  err.println("[ERROR] " + e.getMessage());
+                  if (invocation.showErrors)
+                     e.printStackTrace(err);
+               }
+               if (invocation.loggingLevel <= MavenExecutionRequest.LOGGING_LEVEL_INFO)
+                  out.println("[INFO] BUILD FAILURE");
+               return 1;
+            }
+            if (invocation.loggingLevel <= MavenExecutionRequest.LOGGING_LEVEL_INFO)
+               out.println("[INFO] BUILD SUCCESS");
+            return 0;
+         }
+         finally
+         {
+            loggerManager.redirect(null, null, Logger.LEVEL_DISABLED);
+            pomStamps.stamp(target, result);
+            builds++;
+         }
+      }
+
+      private void flushCaches(DefaultPlexusContainer container) throws Exception
+      {
+         container.lookup(PluginRealmCache.class).flush();
+         container.lookup(PluginDescriptorCache.class).flush();
+         container.lookup(PluginArtifactsCache.class).flush();
+         container.lookup(ProjectRealmCache.class).flush();
+      }
+
+      private DefaultPlexusContainer getContainer() throws Exception
+      {
+         if (container == null)
+         {
+            ContainerConfiguration config = new DefaultContainerConfiguration().setAutoWiring(true)
+                     .setClassPathScanning(PlexusConstants.SCANNING_INDEX).setName("maven");
+            container = new DefaultPlexusContainer(config);
+            loggerManager.redirect(null, null, Logger.LEVEL_DISABLED);
+            container.setLoggerManager(loggerManager);
+            builds = 0;
+         }
+         return container;
+      }
+
+      public void dispose()
+      {
+         if (container != null)
+         {
+            container.dispose();
+            container = null;
+         }
+         pomStamps.clear();
+      }
+   }
+
+   /**
+    * Return the system properties of a build, as {@link org.apache.maven.cli.MavenCli} sets them up: a copy of the JVM
+    * system properties, the environment variables as <code>env.*</code> properties, and the Maven version.
+    */
+   static Properties getSystemProperties()
+   {
+      Properties result = new Properties();
+      EnvironmentUtils.addEnvVars(result);
+      result.putAll(System.getProperties());
+
+      Properties buildProperties = CLIReportingUtils.getBuildProperties();
+      String mavenVersion = buildProperties.getProperty(CLIReportingUtils.BUILD_VERSION_PROPERTY);
+      if (mavenVersion != null)
+         result.setProperty("maven.version", mavenVersion);
+      result.setProperty("maven.build.version", CLIReportingUtils.createMavenVersionString(buildProperties));
+      return result;
+   }
+
+   /**
+    * The stamps of the POMs read by the builds of one container.
+    */
+   static class PomStamps
+   {
+      private final Map<String, Long> stamps = new HashMap<String, Long>();
+
+      /**
+       * Return <code>true</code> if any POM read by a previous build changed since.
+       */
+      boolean isModified()
+      {
+         for (Entry<String, Long> stamp : stamps.entrySet())
+         {
+            if (new File(stamp.getKey()).lastModified() != stamp.getValue().longValue())
+               return true;
+         }
+         return false;
+      }
+
+      /**
+       * Record the stamps of the given POM and of every POM of the reactor that was built from it, including the local
+       * parents of its modules, since the plugin realms cached by the container depend on all of them.
+       */
+      void stamp(File target, MavenExecutionResult result)
+      {
+         stamps.put(target.getAbsolutePath(), target.lastModified());
+         List<MavenProject> projects = result == null ? null : result.getTopologicallySortedProjects();
+         if (projects != null)
+         {
+            for (MavenProject project : projects)
+            {
+               for (MavenProject current = project; current != null && current.getFile() != null; current = current
+                        .getParent())
+               {
+                  File file = current.getFile();
+                  stamps.put(file.getAbsolutePath(), file.lastModified());
+               }
+            }
+         }
+      }
+
+      void clear()
+      {
+         stamps.clear();
+      }
+   }
+
+   /**
+    * The subset of the Maven command line understood by this executor.
+    */
+   static class Invocation
+   {
+      final List<String> goals = new ArrayList<String>();
+      final List<String> activeProfiles = new ArrayList<String>();
+      final List<String> inactiveProfiles = new ArrayList<String>();
+      final Properties userProperties = new Properties();
+      String pom;
+      String threads;
+      boolean offline;
+      boolean updateSnapshots;
+      boolean recursive = true;
+      boolean showErrors;
+      int loggingLevel = MavenExecutionRequest.LOGGING_LEVEL_INFO;
+
+      /**
+       * Return the parsed {@link Invocation}, or <code>null</code> if the arguments contain an unsupported option.
+       */
+      static Invocation parse(String[] args)
+      {
+         Invocation result = new Invocation();
+         if (args == null)
+            return result;
+
+         for (int i = 0; i < args.length; i++)
+         {
+            String arg = args[i] == null ? "" : args[i].trim();
+            if (arg.isEmpty())
+               continue;
+
+            if (arg.startsWith("-D") || "--define".equals(arg))
+            {
+               // Like Maven, accept the definition in the same argument (-Dname=value) or in the next (-D name=value)
+               String property = arg.startsWith("-D") ? arg.substring(2) : "";
+               if (property.isEmpty() && i + 1 < args.length && args[i + 1] != null)
+                  property = args[++i].trim();
+               int index = property.indexOf('=');
+               if (property.isEmpty() || index == 0)
+                  return null;
+               else if (index == -1)
+                  result.userProperties.setProperty(property, "true");
+               else
+                  result.userProperties.setProperty(property.substring(0, index), property.substring(index + 1));
+            }
+            else if (arg.startsWith("-P"))
+            {
+               String profiles = arg.length() == 2 && i + 1 < args.length ? args[++i] : arg.substring(2);
+               for (String profile : profiles.split(","))
+               {
+                  profile = profile.trim();
+                  if (profile.startsWith("!") || profile.startsWith("-"))
+                     result.inactiveProfiles.add(profile.substring(1));
+                  else if (profile.startsWith("+"))
+                     result.activeProfiles.add(profile.substring(1));
+                  else if (!profile.isEmpty())
+                     result.activeProfiles.add(profile);
+               }
+            }
+            else if (arg.startsWith("-T") || arg.startsWith("--threads"))
+            {
+               String value = arg.startsWith("--threads") ? arg.substring("--threads".length()) : arg.substring(2);
+               if (value.isEmpty())
+               {
+                  if (i + 1 == args.length)
+                     return null;
+                  value = args[++i];
+               }
+               result.threads = value.trim();
+            }
+            else if (("-f".equals(arg) || "--file".equals(arg)) && i + 1 < args.length)
+               result.pom = args[++i];
+            else if ("-o".equals(arg) || "--offline".equals(arg))
+               result.offline = true;
+            else if ("-U".equals(arg) || "--update-snapshots".equals(arg))
+               result.updateSnapshots = true;
+            else if ("-N".equals(arg) || "--non-recursive".equals(arg))
+               result.recursive = false;
+            else if ("-e".equals(arg) || "--errors".equals(arg))
+               result.showErrors = true;
+            else if ("-X".equals(arg) || "--debug".equals(arg))
+            {
+               result.loggingLevel = MavenExecutionRequest.LOGGING_LEVEL_DEBUG;
+               result.showErrors = true;
+            }
+            else if ("-q".equals(arg) || "--quiet".equals(arg))
+               result.loggingLevel = MavenExecutionRequest.LOGGING_LEVEL_ERROR;
+            else if ("-B".equals(arg) || "--batch-mode".equals(arg))
+               continue;
+            else if (arg.startsWith("-"))
+               return null;
+            else
+               result.goals.add(arg);
+         }
+         return result;
+      }
+   }
+
+   /**
+    * Prints the project and mojo headers Maven shows during a build. The output is flushed before each project and
+    * mojo, so that a build whose output stream was cancelled (see {@link BuildProgress}) stops there.
+    */
+   private static class ProgressListener extends AbstractExecutionListener
+   {
+      private final PrintStream out;
+      private final boolean enabled;
+
+      public ProgressListener(PrintStream out, int loggingLevel)
+      {
+         this.out = out;
+         this.enabled = loggingLevel <= MavenExecutionRequest.LOGGING_LEVEL_INFO;
+      }
+
+      @Override
+      public void projectStarted(ExecutionEvent event)
+      {
+         out.flush();
+         if (enabled)
+         {
+            out.println("[INFO] ------------------------------------------------------------------------");
+            out.println("[INFO] Building " + event.getProject().getName() + " " + event.getProject().getVersion());
+            out.println("[INFO] ------------------------------------------------------------------------");
+         }
+      }
+
+      @Override
+      public void mojoStarted(ExecutionEvent event)
+      {
+         out.flush();
+         if (enabled)
+         {
+            MojoExecution mojo = event.getMojoExecution();
+            out.println("[INFO] --- " + mojo.getArtifactId() + ":" + mojo.getVersion() + ":" + mojo.getGoal() + " ("
+                     + mojo.getExecutionId() + ") @ " + event.getProject().getArtifactId() + " ---");
+         }
+      }
+   }
+
+   /**
+    * Hands out {@link Logger} instances that write to the streams of the build currently running. Components keep
+    * their logger for the lifetime of the container, so the target streams are switched here rather than per logger.
+    */
+   private static class ForwardingLoggerManager extends BaseLoggerManager
+   {
+      private volatile PrintStream out;
+      private volatile PrintStream err;
+
+      public ForwardingLoggerManager()
+      {
+         setThreshold(Logger.LEVEL_INFO);
+      }
+
+      void redirect(PrintStream out, PrintStream err, int threshold)
+      {
+         this.out = out;
+         this.err = err;
+         setThresholds(threshold);
+      }
+
+      @Override
+      protected Logger createLogger(String key)
+      {
+         return new ForwardingLogger(getThreshold(), key);
+      }
+
+      private class ForwardingLogger extends AbstractLogger
+      {
+         public ForwardingLogger(int threshold, String name)
+         {
+            super(threshold, name);
+         }
+
+         @Override
+         public void debug(String message, Throwable throwable)
+         {
+            if (isDebugEnabled())
+               log(out, "[DEBUG] ", message, throwable);
+         }
+
+         @Override
+         public void info(String message, Throwable throwable)
+         {
+            if (isInfoEnabled())
+               log(out, "[INFO] ", message, throwable);
+         }
+
+         @Override
+         public void warn(String message, Throwable throwable)
+         {
+            if (isWarnEnabled())
+               log(out, "[WARNING] ", message, throwable);
+         }
+
+         @Override
+         public void error(String message, Throwable throwable)
+         {
+            if (isErrorEnabled())
+               log(err, "[ERROR] ", message, throwable);
+         }
+
+         @Override
+         public void fatalError(String message, Throwable throwable)
+         {
+            if (isFatalErrorEnabled())
+               log(err, "[FATAL] ", message, throwable);
+         }
+
+         @Override
+         public Logger getChildLogger(String name)
+         {
+            return this;
+         }
+
+         private void log(PrintStream stream, String prefix, String message, Throwable throwable)
+         {
+            if (stream != null)
+            {
+               stream.println(prefix + message);
+               if (throwable != null)
+                  throwable.printStackTrace(stream);
+            }
+         }
+      }
+   }
+}
@@ -6,49 +6,35 @@
  */
 package org.jboss.forge.addon.maven.projects;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintStream;
 import java.io.Writer;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
-import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.cli.MavenCli;
-import org.apache.maven.execution.DefaultMavenExecutionRequest;
-import org.apache.maven.execution.MavenExecutionRequest;
-import org.apache.maven.execution.MavenExecutionRequestPopulator;
 import org.apache.maven.model.Model;
+import org.apache.maven.model.building.FileModelSource;
 import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.project.DependencyResolutionResult;
 import org.apache.maven.project.ProjectBuilder;
 import org.apache.maven.project.ProjectBuildingRequest;
 import org.apache.maven.project.ProjectBuildingResult;
-import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
-import org.apache.maven.settings.Mirror;
-import org.apache.maven.settings.Profile;
-import org.apache.maven.settings.Proxy;
-import org.apache.maven.settings.Repository;
-import org.apache.maven.settings.Settings;
-import org.eclipse.aether.DefaultRepositorySystemSession;
-import org.eclipse.aether.RepositorySystem;
-import org.eclipse.aether.repository.LocalRepository;
-import org.eclipse.aether.util.repository.DefaultMirrorSelector;
-import org.eclipse.aether.util.repository.DefaultProxySelector;
 import org.jboss.forge.addon.environment.Environment;
 import org.jboss.forge.addon.facets.AbstractFacet;
 import org.jboss.forge.addon.maven.environment.Network;
 import org.jboss.forge.addon.maven.projects.util.NativeSystemCall;
-import org.jboss.forge.addon.maven.projects.util.RepositoryUtils;
 import org.jboss.forge.addon.maven.resources.MavenPomResource;
 import org.jboss.forge.addon.projects.Project;
 import org.jboss.forge.addon.projects.ProjectFacet;
@@ -69,6 +55,12 @@ import org.jboss.forge.furnace.util.OperatingSystemUtils;
 public class MavenFacetImpl extends AbstractFacet<Project> implements ProjectFacet, MavenFacet
 {
    private ProjectBuildingResult buildingResult;
+   private MavenModelSnapshot modelSnapshot;
+   private final AtomicLong modelVersion = new AtomicLong();
+   private int batchDepth;
+   private Model batchModel;
+   private boolean batchModified;
+   private boolean batchFailed;
    private ProjectBuilder builder;
    private ResourceMonitor monitor;
    private ListenerRegistration<ResourceListener> listenerRegistration;
@@ -85,6 +77,15 @@ public class MavenFacetImpl extends AbstractFacet<Project> implements ProjectFac
    @Inject
    private PlexusContainer plexus;
 
+   @Inject
+   private MavenModelCache modelCache;
+
+   @Inject
+   private ProjectBuildingRequestCache requestCache;
+
+   @Inject
+   private EmbeddedMavenExecutor embeddedMaven;
+
    private ProjectBuilder getBuilder()
    {
       if (builder == null)
@@ -104,89 +105,7 @@ public class MavenFacetImpl extends AbstractFacet<Project> implements ProjectFac
 
    public ProjectBuildingRequest getBuildingRequest(final boolean offline)
    {
-      ClassLoader cl = Thread.currentThread().getContextClassLoader();
-      try
-      {
-         Settings settings = container.getSettings();
-         // TODO this needs to be configurable via .forge
-         // TODO this reference to the M2_REPO should probably be centralized
-
-         MavenExecutionRequest executionRequest = new DefaultMavenExecutionRequest();
-         MavenExecutionRequestPopulator populator = plexus.lookup(MavenExecutionRequestPopulator.class);
-         populator.populateFromSettings(executionRequest, container.getSettings());
-         populator.populateDefaults(executionRequest);
-         RepositorySystem system = plexus.lookup(RepositorySystem.class);
-         ProjectBuildingRequest request = executionRequest.getProjectBuildingRequest();
-
-         ArtifactRepository localRepository = RepositoryUtils.toArtifactRepository("local",
-                  new File(settings.getLocalRepository()).toURI().toURL().toString(), null, true, true);
-         request.setLocalRepository(localRepository);
-
-         List<ArtifactRepository> settingsRepos = new ArrayList<ArtifactRepository>(request.getRemoteRepositories());
-         List<String> activeProfiles = settings.getActiveProfiles();
-
-         Map<String, Profile> profiles = settings.getProfilesAsMap();
-
-         for (String id : activeProfiles)
-         {
-            Profile profile = profiles.get(id);
-            if (profile != null)
-            {
-               List<Repository> repositories = profile.getRepositories();
-               for (Repository repository : repositories)
-               {
-                  settingsRepos.add(RepositoryUtils.convertFromMavenSettingsRepository(repository));
-               }
-            }
-         }
-         request.setRemoteRepositories(settingsRepos);
-         request.setSystemProperties(System.getProperties());
-
-         DefaultRepositorySystemSession repositorySession = MavenRepositorySystemUtils.newSession();
-         Proxy activeProxy = settings.getActiveProxy();
-         if (activeProxy != null)
-         {
-            DefaultProxySelector dps = new DefaultProxySelector();
-            dps.add(RepositoryUtils.convertFromMavenProxy(activeProxy), activeProxy.getNonProxyHosts());
-            repositorySession.setProxySelector(dps);
-         }
-         LocalRepository localRepo = new LocalRepository(settings.getLocalRepository());
-         repositorySession.setLocalRepositoryManager(system.newLocalRepositoryManager(repositorySession, localRepo));
-         repositorySession.setOffline(offline);
-         List<Mirror> mirrors = executionRequest.getMirrors();
-         if (mirrors != null)
-         {
-            DefaultMirrorSelector mirrorSelector = new DefaultMirrorSelector();
-            for (Mirror mirror : mirrors)
-            {
-               mirrorSelector.add(mirror.getId(), mirror.getUrl(), mirror.getLayout(), false, mirror.getMirrorOf(),
-                        mirror.getMirrorOfLayouts());
-            }
-            repositorySession.setMirrorSelector(mirrorSelector);
-         }
-
-         request.setRepositorySession(repositorySession);
-         request.setProcessPlugins(false);
-         request.setResolveDependencies(false);
-         return request;
-      }
-      catch (RuntimeException e)
-      {
-         throw e;
-      }
-      catch (Exception e)
-      {
-         throw new RuntimeException(
-                  "Could not create Maven project building request", e);
-      }
-      finally
-      {
-         /*
-          * We reset the classloader to prevent potential modules bugs if Classwords container changes classloaders on
-          * us
-          */
-         Thread.currentThread().setContextClassLoader(cl);
-      }
+      return requestCache.getBuildingRequest(offline);
    }
 
    @Override
@@ -265,38 +184,97 @@ public class MavenFacetImpl extends AbstractFacet<Project> implements ProjectFac
    }
 
    @Override
-   public Model getPOM()
+   public synchronized Model getPOM()
    {
+      if (batchDepth > 0)
+      {
+         if (batchModel == null)
+            batchModel = getPomResource().getCurrentModel();
+         return batchModel;
+      }
       return getPomResource().getCurrentModel();
    }
 
    @Override
-   public void setPOM(final Model pom)
+   public synchronized void setPOM(final Model pom)
    {
-      MavenXpp3Writer writer = new MavenXpp3Writer();
-      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-      Writer fw = new OutputStreamWriter(outputStream);
-      try
+      if (batchDepth > 0)
       {
-         writer.write(fw, pom);
-         getPomResource().setContents(outputStream.toString());
+         batchModel = pom;
+         batchModified = true;
+         invalidateBuildingResults();
       }
-      catch (IOException e)
+      else
       {
-         throw new RuntimeException("Could not write POM file: " + getPomResource().getFullyQualifiedName(), e);
+         writePOM(pom);
       }
-      finally
+   }
+
+   @Override
+   public synchronized void beginBatch()
+   {
+      batchDepth++;
+   }
+
+   @Override
+   public synchronized void commitBatch()
+   {
+      if (batchDepth == 0)
+         throw new IllegalStateException("No POM batch was started");
+      if (--batchDepth == 0)
       {
-         try
-         {
-            fw.close();
-            outputStream.close();
-         }
-         catch (IOException e)
+         if (batchFailed)
+            discardBatch();
+         else
          {
-            throw new RuntimeException(e);
+            Model pom = batchModel;
+            boolean modified = batchModified;
+            batchModel = null;
+            batchModified = false;
+            if (modified)
+               writePOM(pom);
          }
       }
+   }
+
+   @Override
+   public synchronized void rollbackBatch()
+   {
+      if (batchDepth == 0)
+         throw new IllegalStateException("No POM batch was started");
+      // A nested rollback fails the whole batch; the outermost commit or rollback discards it
+      batchFailed = true;
+      if (--batchDepth == 0)
+         discardBatch();
+   }
+
+   @Override
+   public synchronized boolean isBatchStarted()
+   {
+      return batchDepth > 0;
+   }
+
+   private void discardBatch()
+   {
+      batchModel = null;
+      batchFailed = false;
+      if (batchModified)
+      {
+         batchModified = false;
+         invalidateBuildingResults();
+      }
+   }
+
+   private void writePOM(final Model pom)
+   {
+      try
+      {
+         getPomResource().setContentsIfChanged(serialize(pom));
+      }
+      catch (IOException e)
+      {
+         throw new RuntimeException("Could not write POM file: " + getPomResource().getFullyQualifiedName(), e);
+      }
 
       /*
        * Invalidate build result immediately; otherwise, the current thread may not get correct results until the
@@ -305,6 +283,23 @@ public class MavenFacetImpl extends AbstractFacet<Project> implements ProjectFac
       invalidateBuildingResults();
    }
 
+   private static String serialize(final Model pom) throws IOException
+   {
+      MavenXpp3Writer writer = new MavenXpp3Writer();
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      Writer fw = new OutputStreamWriter(outputStream);
+      try
+      {
+         writer.write(fw, pom);
+         return outputStream.toString();
+      }
+      finally
+      {
+         fw.close();
+         outputStream.close();
+      }
+   }
+
    /*
     * POM manipulation methods
     */
@@ -322,7 +317,16 @@ public class MavenFacetImpl extends AbstractFacet<Project> implements ProjectFac
                request.setResolveDependencies(true);
                // FORGE-1287
                // buildingResult = getBuilder().build(new FileResourceModelSource(pomResource), request);
-               buildingResult = getBuilder().build(pomResource.getUnderlyingResourceObject(), request);
+               File pomFile = pomResource.getUnderlyingResourceObject();
+               if (batchModified)
+               {
+                  // Build the effective model from the uncommitted batch, resolving parents next to the POM file
+                  buildingResult = getBuilder().build(new BatchModelSource(pomFile, serialize(batchModel)), request);
+               }
+               else
+               {
+                  buildingResult = getBuilder().build(pomFile, request);
+               }
             }
             catch (RuntimeException full)
             {
@@ -341,40 +345,63 @@ public class MavenFacetImpl extends AbstractFacet<Project> implements ProjectFac
       return buildingResult;
    }
 
+   /**
+    * Returns a {@link MavenModelSnapshot} of the effective model. Snapshots are persisted across sessions and are only
+    * rebuilt (through {@link #getProjectBuildingResult()}) when the POM, its parents or the active settings change.
+    * Models that {@link MavenModelCache} cannot track are rebuilt once per session.
+    */
+   public synchronized MavenModelSnapshot getModelSnapshot()
+   {
+      if (this.modelSnapshot == null)
+      {
+         File pomFile = getPomResource().getUnderlyingResourceObject();
+         String key = modelCache.computeKey(pomFile, container.getSettings(), Network.isOffline(environment));
+         MavenModelSnapshot snapshot = (batchModified || key == null) ? null : modelCache.get(pomFile, key);
+         if (snapshot == null)
+         {
+            ProjectBuildingResult result = getProjectBuildingResult();
+            snapshot = MavenModelSnapshot.create(key, result);
+            // Do not persist partially resolved models
+            DependencyResolutionResult resolution = result.getDependencyResolutionResult();
+            if (!batchModified && key != null && (resolution == null || resolution.getCollectionErrors().isEmpty()))
+            {
+               modelCache.put(pomFile, snapshot);
+            }
+         }
+         this.modelSnapshot = snapshot;
+      }
+      return modelSnapshot;
+   }
+
    private void invalidateBuildingResults()
    {
       this.buildingResult = null;
+      this.modelSnapshot = null;
+      this.modelVersion.incrementAndGet();
+   }
+
+   /**
+    * Returns a stamp that changes whenever the POM of this project is changed, either through {@link #setPOM(Model)}
+    * or on disk.
+    */
+   public long[] getModelStamp()
+   {
+      File pomFile = getPomResource().getUnderlyingResourceObject();
+      return new long[] { modelVersion.get(), pomFile.lastModified(), pomFile.length() };
    }
 
    @Override
    public Map<String, String> getProperties()
    {
-      Properties properties = getProjectBuildingResult().getProject().getProperties();
-      Map<String, String> result = new HashMap<String, String>();
-      for (Entry<Object, Object> o : properties.entrySet())
-      {
-         result.put((String) o.getKey(), (String) o.getValue());
-      }
-      return result;
+      return new HashMap<String, String>(getModelSnapshot().getProperties());
    }
 
    @Override
    public String resolveProperties(String input)
    {
-      String result = input;
-      if (input != null)
-      {
-         Properties properties = getProjectBuildingResult().getProject().getProperties();
-
-         for (Entry<Object, Object> e : properties.entrySet())
-         {
-            String key = "\\$\\{" + e.getKey().toString() + "\\}";
-            Object value = e.getValue();
-            result = result.replaceAll(key, value.toString());
-         }
-      }
-
-      return result;
+      if (input == null)
+         return null;
+      return getModelSnapshot().resolveProperties(input);
    }
 
    @Override
@@ -400,6 +427,11 @@ public class MavenFacetImpl extends AbstractFacet<Project> implements ProjectFac
       {
          parms = new String[] { "" };
       }
+      if (embeddedMaven.supports(parms))
+      {
+         File pom = getPomResource().getUnderlyingResourceObject();
+         return embeddedMaven.execute(pom, container.getSettings(), parms, out, err) == 0;
+      }
       MavenCli cli = new MavenCli();
       int i = cli.doMain(parms, getFaceted().getProjectRoot().getFullyQualifiedName(),
                out, err);
@@ -423,13 +455,11 @@ public class MavenFacetImpl extends AbstractFacet<Project> implements ProjectFac
       try
       {
          int returnValue = NativeSystemCall.execFromPath(getMvnCommand(), parms, out, getFaceted().getProjectRoot());
-         if (returnValue == 0)
-            return true;
-         else
-            return executeMavenEmbedded(parms);
+         return returnValue == 0;
       }
       catch (IOException e)
       {
+         // No native Maven available
          return executeMavenEmbedded(parms);
       }
    }
@@ -446,4 +476,23 @@ public class MavenFacetImpl extends AbstractFacet<Project> implements ProjectFac
                DirectoryResource.class);
    }
 
+   /**
+    * The POM file with the contents of an uncommitted batch, so relative parents are still found on disk.
+    */
+   private static class BatchModelSource extends FileModelSource
+   {
+      private final String contents;
+
+      BatchModelSource(File pomFile, String contents)
+      {
+         super(pomFile);
+         this.contents = contents;
+      }
+
+      @Override
+      public InputStream getInputStream() throws IOException
+      {
+         return new ByteArrayInputStream(contents.getBytes());
+      }
+   }
 }
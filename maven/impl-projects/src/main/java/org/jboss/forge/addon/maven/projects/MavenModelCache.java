@@ -0,0 +1,506 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.projects;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Singleton;
+
+import org.apache.maven.model.Activation;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Profile;
+import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
+import org.apache.maven.settings.Settings;
+import org.jboss.forge.addon.maven.util.MavenSettingsFiles;
+import org.jboss.forge.furnace.util.OperatingSystemUtils;
+import org.jboss.forge.furnace.util.Streams;
+
+/**
+ * Stores {@link MavenModelSnapshot} instances on disk so that they survive restarts. Each POM file owns exactly one
+ * cache entry; an entry is only returned if its key (a digest of the POM, its parent chain, the active settings, the
+ * offline flag and the system properties, environment variables and files its profiles and expressions refer to)
+ * matches the key computed from the current inputs.
+ *
+ * Set the system property {@value #CACHE_DISABLED_PROPERTY} to <code>true</code> to disable the cache.
+ */
+@Singleton
+class MavenModelCache
+{
+   static final String CACHE_DISABLED_PROPERTY = "forge.maven.model.cache.disabled";
+
+   private static final Logger log = Logger.getLogger(MavenModelCache.class.getName());
+
+   private static final Pattern EXPRESSION = Pattern.compile("\\$\\{([^}]+)\\}");
+
+   private final File cacheDir = new File(OperatingSystemUtils.getUserForgeDir(), "cache/maven/models");
+
+   /**
+    * Compute the key identifying every input that influences the effective model of the given POM file, or return
+    * <code>null</code> if that model depends on inputs that change without notice (imported BOMs, SNAPSHOT or version
+    * range dependencies, unresolvable profile activation files) and must therefore not be persisted.
+    */
+   public String computeKey(File pomFile, Settings settings, boolean offline)
+   {
+      MessageDigest digest = newDigest();
+      update(digest, pomFile.getAbsolutePath());
+      update(digest, String.valueOf(offline));
+
+      // POM and parent chain, with the environment their profiles and expressions depend on
+      File current = pomFile;
+      File localRepository = settings.getLocalRepository() == null ? null : new File(settings.getLocalRepository());
+      Set<File> visited = new HashSet<File>();
+      while (current != null && current.isFile() && visited.add(current))
+      {
+         updateFile(digest, current);
+         Model model = readModel(current);
+         if (model == null)
+            break;
+         if (!isPersistable(model))
+            return null;
+         for (Profile profile : model.getProfiles())
+         {
+            Activation activation = profile.getActivation();
+            if (activation != null
+                     && !updateActivation(digest, current.getParentFile(), activation.getJdk() != null,
+                              activation.getOs() != null,
+                              activation.getProperty() == null ? null : activation.getProperty().getName(),
+                              activation.getFile() == null ? null : activation.getFile().getExists(),
+                              activation.getFile() == null ? null : activation.getFile().getMissing()))
+               return null;
+         }
+         updateExpressions(digest, current);
+         current = getParentPomFile(current, model, localRepository);
+      }
+
+      // Settings and active profiles
+      for (File settingsFile : MavenSettingsFiles.getSettingsFiles())
+      {
+         update(digest, settingsFile.getAbsolutePath());
+         updateFile(digest, settingsFile);
+      }
+      update(digest, String.valueOf(settings.getLocalRepository()));
+      List<String> activeProfiles = settings.getActiveProfiles();
+      if (activeProfiles != null)
+      {
+         for (String profile : activeProfiles)
+         {
+            update(digest, profile);
+         }
+      }
+      for (org.apache.maven.settings.Profile profile : settings.getProfiles())
+      {
+         org.apache.maven.settings.Activation activation = profile.getActivation();
+         if (activation != null
+                  && !updateActivation(digest, pomFile.getParentFile(), activation.getJdk() != null,
+                           activation.getOs() != null,
+                           activation.getProperty() == null ? null : activation.getProperty().getName(),
+                           activation.getFile() == null ? null : activation.getFile().getExists(),
+                           activation.getFile() == null ? null : activation.getFile().getMissing()))
+            return null;
+      }
+      return toHex(digest.digest());
+   }
+
+   /**
+    * Return the cached {@link MavenModelSnapshot} for the given POM file if it was stored with the given key, otherwise
+    * return <code>null</code>.
+    */
+   public MavenModelSnapshot get(File pomFile, String key)
+   {
+      if (isDisabled())
+         return null;
+
+      File entry = getEntryFile(pomFile);
+      if (!entry.isFile())
+         return null;
+
+      ObjectInputStream in = null;
+      try
+      {
+         in = new SnapshotInputStream(new BufferedInputStream(new FileInputStream(entry)));
+         MavenModelSnapshot snapshot = (MavenModelSnapshot) in.readObject();
+         if (key.equals(snapshot.getKey()))
+            return snapshot;
+      }
+      catch (Exception e)
+      {
+         log.log(Level.FINE, "Discarding unreadable Maven model cache entry [" + entry + "]", e);
+      }
+      finally
+      {
+         Streams.closeQuietly(in);
+      }
+      entry.delete();
+      return null;
+   }
+
+   /**
+    * Store the given {@link MavenModelSnapshot} as the cache entry of the given POM file, replacing any previous entry.
+    */
+   public void put(File pomFile, MavenModelSnapshot snapshot)
+   {
+      if (isDisabled())
+         return;
+
+      File entry = getEntryFile(pomFile);
+      File temp = new File(entry.getParentFile(), entry.getName() + ".tmp");
+      ObjectOutputStream out = null;
+      try
+      {
+         cacheDir.mkdirs();
+         out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+         out.writeObject(snapshot);
+         out.close();
+         out = null;
+         if (!temp.renameTo(entry))
+         {
+            entry.delete();
+            temp.renameTo(entry);
+         }
+      }
+      catch (IOException e)
+      {
+         log.log(Level.FINE, "Could not write Maven model cache entry [" + entry + "]", e);
+      }
+      finally
+      {
+         closeQuietly(out);
+         temp.delete();
+      }
+   }
+
+   /**
+    * Remove the cache entry of the given POM file.
+    */
+   public void remove(File pomFile)
+   {
+      getEntryFile(pomFile).delete();
+   }
+
+   private boolean isDisabled()
+   {
+      return Boolean.getBoolean(CACHE_DISABLED_PROPERTY);
+   }
+
+   private File getEntryFile(File pomFile)
+   {
+      MessageDigest digest = newDigest();
+      update(digest, pomFile.getAbsolutePath());
+      return new File(cacheDir, toHex(digest.digest()) + ".ser");
+   }
+
+   /**
+    * Locate the parent POM of the given POM file, either through its relative path or in the local repository.
+    */
+   private File getParentPomFile(File pomFile, Model model, File localRepository)
+   {
+      try
+      {
+         Parent parent = model.getParent();
+         if (parent == null)
+            return null;
+
+         String relativePath = parent.getRelativePath();
+         if (relativePath != null && !relativePath.trim().isEmpty())
+         {
+            File candidate = new File(pomFile.getParentFile(), relativePath.trim());
+            if (candidate.isDirectory())
+               candidate = new File(candidate, "pom.xml");
+            if (candidate.isFile() && isParent(candidate, parent))
+               return candidate.getCanonicalFile();
+         }
+
+         if (localRepository != null)
+         {
+            File candidate = new File(localRepository, parent.getGroupId().replace('.', File.separatorChar)
+                     + File.separator + parent.getArtifactId() + File.separator + parent.getVersion()
+                     + File.separator + parent.getArtifactId() + "-" + parent.getVersion() + ".pom");
+            if (candidate.isFile())
+               return candidate;
+         }
+         return null;
+      }
+      catch (Exception e)
+      {
+         return null;
+      }
+   }
+
+   private Model readModel(File pomFile)
+   {
+      InputStream stream = null;
+      try
+      {
+         stream = new FileInputStream(pomFile);
+         return new MavenXpp3Reader().read(stream);
+      }
+      catch (Exception e)
+      {
+         return null;
+      }
+      finally
+      {
+         Streams.closeQuietly(stream);
+      }
+   }
+
+   /**
+    * Returns <code>false</code> if the given {@link Model} imports BOMs or refers to SNAPSHOT or version range
+    * dependencies, whose resolution may change while the POM stays the same.
+    */
+   private boolean isPersistable(Model model)
+   {
+      if (!isPersistable(model.getDependencies(), model.getDependencyManagement()))
+         return false;
+      for (Profile profile : model.getProfiles())
+      {
+         if (!isPersistable(profile.getDependencies(), profile.getDependencyManagement()))
+            return false;
+      }
+      // Versions are often declared as properties
+      for (Object value : model.getProperties().values())
+      {
+         if (isVolatileVersion(String.valueOf(value)))
+            return false;
+      }
+      return true;
+   }
+
+   private boolean isPersistable(List<Dependency> dependencies, DependencyManagement dependencyManagement)
+   {
+      for (Dependency dependency : dependencies)
+      {
+         if (isVolatileVersion(dependency.getVersion()))
+            return false;
+      }
+      if (dependencyManagement != null)
+      {
+         for (Dependency dependency : dependencyManagement.getDependencies())
+         {
+            if ("import".equals(dependency.getScope()) || isVolatileVersion(dependency.getVersion()))
+               return false;
+         }
+      }
+      return true;
+   }
+
+   private static boolean isVolatileVersion(String version)
+   {
+      if (version == null)
+         return false;
+      String trimmed = version.trim();
+      return trimmed.endsWith("SNAPSHOT") || trimmed.startsWith("[") || trimmed.startsWith("(");
+   }
+
+   /**
+    * Digest the environment a profile activation depends on. Returns <code>false</code> if an activation file cannot
+    * be resolved without interpolating the model.
+    */
+   private static boolean updateActivation(MessageDigest digest, File basedir, boolean jdk, boolean os,
+            String property, String exists, String missing)
+   {
+      if (jdk)
+      {
+         update(digest, "java.version=" + System.getProperty("java.version"));
+      }
+      if (os)
+      {
+         update(digest, "os.name=" + System.getProperty("os.name"));
+         update(digest, "os.arch=" + System.getProperty("os.arch"));
+         update(digest, "os.version=" + System.getProperty("os.version"));
+      }
+      if (property != null)
+      {
+         String name = property.startsWith("!") ? property.substring(1) : property;
+         update(digest, name + "=" + System.getProperty(name));
+      }
+      for (String path : new String[] { exists, missing })
+      {
+         if (path == null)
+            continue;
+         String resolved = path.replace("${project.basedir}", basedir.getAbsolutePath()).replace("${basedir}",
+                  basedir.getAbsolutePath());
+         if (resolved.contains("${"))
+            return false;
+         File file = new File(resolved);
+         if (!file.isAbsolute())
+            file = new File(basedir, resolved);
+         update(digest, resolved + "=" + file.exists());
+      }
+      return true;
+   }
+
+   /**
+    * Digest the value of every system property and environment variable an expression of the given POM file may be
+    * interpolated with.
+    */
+   private static void updateExpressions(MessageDigest digest, File pomFile)
+   {
+      InputStream stream = null;
+      try
+      {
+         stream = new FileInputStream(pomFile);
+         Matcher matcher = EXPRESSION.matcher(Streams.toString(stream));
+         Set<String> names = new TreeSet<String>();
+         while (matcher.find())
+         {
+            names.add(matcher.group(1).trim());
+         }
+         for (String name : names)
+         {
+            if (name.startsWith("env."))
+               update(digest, name + "=" + System.getenv(name.substring(4)));
+            else if (!name.startsWith("project.") && !name.startsWith("pom.") && !name.startsWith("settings."))
+               update(digest, name + "=" + System.getProperty(name));
+         }
+      }
+      catch (Exception e)
+      {
+         // An unreadable input must never produce a stale hit
+         update(digest, String.valueOf(System.nanoTime()));
+      }
+      finally
+      {
+         Streams.closeQuietly(stream);
+      }
+   }
+
+   private boolean isParent(File candidate, Parent parent)
+   {
+      Model model = readModel(candidate);
+      if (model == null)
+         return false;
+      String groupId = model.getGroupId() != null ? model.getGroupId()
+               : (model.getParent() != null ? model.getParent().getGroupId() : null);
+      return parent.getArtifactId().equals(model.getArtifactId()) && parent.getGroupId().equals(groupId);
+   }
+
+   private static void updateFile(MessageDigest digest, File file)
+   {
+      if (!file.isFile())
+      {
+         update(digest, "<missing>");
+         return;
+      }
+      InputStream stream = null;
+      try
+      {
+         stream = new BufferedInputStream(new FileInputStream(file));
+         byte[] buffer = new byte[8192];
+         int read;
+         while ((read = stream.read(buffer)) != -1)
+         {
+            digest.update(buffer, 0, read);
+         }
+      }
+      catch (IOException e)
+      {
+         // An unreadable input must never produce a stale hit
+         update(digest, String.valueOf(System.nanoTime()));
+      }
+      finally
+      {
+         Streams.closeQuietly(stream);
+      }
+   }
+
+   private static void update(MessageDigest digest, String value)
+   {
+      try
+      {
+         digest.update(value.getBytes("UTF-8"));
+         digest.update((byte) 0);
+      }
+      catch (IOException e)
+      {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   private static MessageDigest newDigest()
+   {
+      try
+      {
+         return MessageDigest.getInstance("SHA-1");
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+         throw new IllegalStateException("SHA-1 is not supported by this JVM", e);
+      }
+   }
+
+   private static String toHex(byte[] bytes)
+   {
+      StringBuilder sb = new StringBuilder(bytes.length * 2);
+      for (byte b : bytes)
+      {
+         sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return sb.toString();
+   }
+
+   /**
+    * Resolves classes through this addon's {@link ClassLoader} rather than the caller's.
+    */
+   private static class SnapshotInputStream extends ObjectInputStream
+   {
+      public SnapshotInputStream(InputStream in) throws IOException
+      {
+         super(in);
+      }
+
+      @Override
+      protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
+      {
+         try
+         {
+            return Class.forName(desc.getName(), false, MavenModelSnapshot.class.getClassLoader());
+         }
+         catch (ClassNotFoundException e)
+         {
+            return super.resolveClass(desc);
+         }
+      }
+   }
+
+   private static void closeQuietly(OutputStream out)
+   {
+      if (out != null)
+      {
+         try
+         {
+            out.close();
+         }
+         catch (IOException ignored)
+         {
+         }
+      }
+   }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.projects;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuildingResult;
+import org.jboss.forge.addon.maven.projects.util.PropertyInterpolator;
+
+/**
+ * An immutable, serializable view of the parts of a {@link ProjectBuildingResult} that are queried most often: the
+ * effective properties, the resolved dependencies, the effective dependency management and the build output location.
+ */
+public class MavenModelSnapshot implements Serializable
+{
+   private static final long serialVersionUID = 2911652447468210093L;
+
+   private final String key;
+   private final HashMap<String, String> properties;
+   private final ArrayList<Dependency> dependencies;
+   private final ArrayList<Dependency> managedDependencies;
+   private final String buildDirectory;
+   private final String finalName;
+   private transient volatile PropertyInterpolator interpolator;
+
+   private MavenModelSnapshot(String key, HashMap<String, String> properties, ArrayList<Dependency> dependencies,
+            ArrayList<Dependency> managedDependencies, String buildDirectory, String finalName)
+   {
+      this.key = key;
+      this.properties = properties;
+      this.dependencies = dependencies;
+      this.managedDependencies = managedDependencies;
+      this.buildDirectory = buildDirectory;
+      this.finalName = finalName;
+   }
+
+   /**
+    * Create a new {@link MavenModelSnapshot} from the given {@link ProjectBuildingResult}, identified by the given
+    * cache key.
+    */
+   public static MavenModelSnapshot create(String key, ProjectBuildingResult result)
+   {
+      MavenProject project = result.getProject();
+
+      HashMap<String, String> properties = new HashMap<String, String>();
+      Properties projectProperties = project.getProperties();
+      for (Entry<Object, Object> entry : projectProperties.entrySet())
+      {
+         properties.put(entry.getKey().toString(), entry.getValue().toString());
+      }
+
+      ArrayList<Dependency> dependencies = new ArrayList<Dependency>();
+      if (result.getDependencyResolutionResult() != null)
+      {
+         for (org.eclipse.aether.graph.Dependency dependency : result.getDependencyResolutionResult()
+                  .getDependencies())
+         {
+            dependencies.add(toMavenDependency(dependency));
+         }
+      }
+
+      ArrayList<Dependency> managedDependencies = new ArrayList<Dependency>();
+      DependencyManagement depMan = project.getDependencyManagement();
+      if (depMan != null)
+      {
+         for (Dependency dependency : depMan.getDependencies())
+         {
+            managedDependencies.add(dependency.clone());
+         }
+      }
+
+      Build build = project.getBuild();
+      String buildDirectory = build == null ? null : build.getDirectory();
+      String finalName = build == null ? null : build.getFinalName();
+
+      return new MavenModelSnapshot(key, properties, dependencies, managedDependencies, buildDirectory, finalName);
+   }
+
+   private static Dependency toMavenDependency(org.eclipse.aether.graph.Dependency dependency)
+   {
+      Dependency result = new Dependency();
+      result.setGroupId(dependency.getArtifact().getGroupId());
+      result.setArtifactId(dependency.getArtifact().getArtifactId());
+      result.setVersion(dependency.getArtifact().getBaseVersion());
+      result.setClassifier(dependency.getArtifact().getClassifier());
+      result.setType(dependency.getArtifact().getExtension());
+      result.setScope(dependency.getScope());
+      result.setOptional(dependency.isOptional());
+      for (org.eclipse.aether.graph.Exclusion exclusion : dependency.getExclusions())
+      {
+         org.apache.maven.model.Exclusion temp = new org.apache.maven.model.Exclusion();
+         temp.setGroupId(exclusion.getGroupId());
+         temp.setArtifactId(exclusion.getArtifactId());
+         result.addExclusion(temp);
+      }
+      return result;
+   }
+
+   /**
+    * Return the cache key of the inputs this snapshot was built from.
+    */
+   public String getKey()
+   {
+      return key;
+   }
+
+   /**
+    * Return the effective project properties.
+    */
+   public Map<String, String> getProperties()
+   {
+      return Collections.unmodifiableMap(properties);
+   }
+
+   /**
+    * Resolve Maven properties for the given input {@link String}, replacing occurrences of <code>${property}</code>
+    * with their effective value.
+    */
+   public String resolveProperties(String input)
+   {
+      if (interpolator == null)
+         interpolator = new PropertyInterpolator(properties);
+      return interpolator.interpolate(input);
+   }
+
+   /**
+    * Return the resolved (transitive) dependencies of the project.
+    */
+   public List<Dependency> getDependencies()
+   {
+      return Collections.unmodifiableList(dependencies);
+   }
+
+   /**
+    * Return the effective dependency management section, including entries inherited from parents and imported BOMs.
+    */
+   public List<Dependency> getManagedDependencies()
+   {
+      return Collections.unmodifiableList(managedDependencies);
+   }
+
+   /**
+    * Return the effective build output directory.
+    */
+   public String getBuildDirectory()
+   {
+      return buildDirectory;
+   }
+
+   /**
+    * Return the effective final name of the build artifact.
+    */
+   public String getFinalName()
+   {
+      return finalName;
+   }
+}
@@ -10,12 +10,16 @@ import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import org.jboss.forge.addon.environment.Environment;
 import org.jboss.forge.addon.maven.environment.Network;
 import org.jboss.forge.addon.maven.projects.MavenFacet;
 import org.jboss.forge.addon.projects.Project;
 import org.jboss.forge.addon.projects.building.BuildException;
+import org.jboss.forge.addon.projects.building.BuildListener;
 import org.jboss.forge.addon.projects.building.ProjectBuilder;
 import org.jboss.forge.addon.projects.facets.PackagingFacet;
 import org.jboss.forge.addon.resource.Resource;
@@ -92,4 +96,24 @@ public class MavenProjectBuilder implements ProjectBuilder
          throw new BuildException("Build failed.");
       }
    }
+
+   /**
+    * Builds run concurrently, each in a container of its own (see {@link EmbeddedMavenExecutor}), so a build only
+    * occupies the executor thread running it. Cancelling the returned {@link Future} aborts the build at its next
+    * output and interrupts it; a build that has not started yet is not run at all.
+    */
+   @Override
+   public Future<Resource<?>> build(Executor executor, BuildListener listener)
+   {
+      FutureTask<Resource<?>> task = new BuildProgress(listener).createTask(new BuildProgress.Build<Resource<?>>()
+      {
+         @Override
+         public Resource<?> run(PrintStream out, PrintStream err) throws Exception
+         {
+            return build(out, err);
+         }
+      });
+      executor.execute(task);
+      return task;
+   }
 }
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.projects;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionRequestPopulator;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.apache.maven.settings.Mirror;
+import org.apache.maven.settings.Profile;
+import org.apache.maven.settings.Proxy;
+import org.apache.maven.settings.Repository;
+import org.apache.maven.settings.Settings;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.DefaultSessionData;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.SessionData;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.util.repository.DefaultMirrorSelector;
+import org.eclipse.aether.util.repository.DefaultProxySelector;
+import org.jboss.forge.addon.maven.projects.util.RepositoryUtils;
+import org.jboss.forge.addon.maven.util.MavenSettingsFiles;
+import org.jboss.forge.furnace.container.cdi.events.Local;
+import org.jboss.forge.furnace.event.PreShutdown;
+import org.jboss.forge.furnace.manager.maven.MavenContainer;
+
+/**
+ * Holds one {@link ProjectBuildingRequest} template (and its {@link org.eclipse.aether.RepositorySystemSession}) per
+ * settings file and offline flag, shared by every {@link MavenFacetImpl} in the container. A template is rebuilt only
+ * when one of the settings files is modified.
+ */
+@Singleton
+class ProjectBuildingRequestCache
+{
+   private final ConcurrentMap<String, Template> templates = new ConcurrentHashMap<String, Template>();
+
+   @Inject
+   private MavenContainer container;
+
+   @Inject
+   private PlexusContainer plexus;
+
+   /**
+    * Returns a new {@link ProjectBuildingRequest} initialized from the cached template, with a copy of the current
+    * system properties. Callers may freely modify the returned request; its
+    * {@link org.eclipse.aether.RepositorySystemSession} shares everything but its {@link SessionData} with the
+    * template.
+    */
+   public ProjectBuildingRequest getBuildingRequest(final boolean offline)
+   {
+      File[] settingsFiles = MavenSettingsFiles.getSettingsFiles();
+      long[] stamps = MavenSettingsFiles.getStamps(settingsFiles);
+      String key = Arrays.toString(settingsFiles) + ":" + offline;
+
+      Template template = templates.get(key);
+      if (template == null || !Arrays.equals(template.stamps, stamps))
+      {
+         template = new Template(stamps, createTemplate(offline));
+         templates.put(key, template);
+      }
+      ProjectBuildingRequest request = new DefaultProjectBuildingRequest(template.request);
+      Properties systemProperties = new Properties();
+      systemProperties.putAll(System.getProperties());
+      request.setSystemProperties(systemProperties);
+      DefaultRepositorySystemSession repositorySession = new DefaultRepositorySystemSession(
+               template.request.getRepositorySession());
+      repositorySession.setData(new DefaultSessionData());
+      request.setRepositorySession(repositorySession);
+      return request;
+   }
+
+   public void preShutdown(@Observes @Local PreShutdown event)
+   {
+      templates.clear();
+   }
+
+   private ProjectBuildingRequest createTemplate(final boolean offline)
+   {
+      ClassLoader cl = Thread.currentThread().getContextClassLoader();
+      try
+      {
+         Settings settings = container.getSettings();
+         // TODO this needs to be configurable via .forge
+         // TODO this reference to the M2_REPO should probably be centralized
+
+         MavenExecutionRequest executionRequest = new DefaultMavenExecutionRequest();
+         MavenExecutionRequestPopulator populator = plexus.lookup(MavenExecutionRequestPopulator.class);
+         populator.populateFromSettings(executionRequest, settings);
+         populator.populateDefaults(executionRequest);
+         RepositorySystem system = plexus.lookup(RepositorySystem.class);
+         ProjectBuildingRequest request = executionRequest.getProjectBuildingRequest();
+
+         ArtifactRepository localRepository = RepositoryUtils.toArtifactRepository("local",
+                  new File(settings.getLocalRepository()).toURI().toURL().toString(), null, true, true);
+         request.setLocalRepository(localRepository);
+
+         List<ArtifactRepository> settingsRepos = new ArrayList<ArtifactRepository>(request.getRemoteRepositories());
+         List<String> activeProfiles = settings.getActiveProfiles();
+
+         Map<String, Profile> profiles = settings.getProfilesAsMap();
+
+         for (String id : activeProfiles)
+         {
+            Profile profile = profiles.get(id);
+            if (profile != null)
+            {
+               List<Repository> repositories = profile.getRepositories();
+               for (Repository repository : repositories)
+               {
+                  settingsRepos.add(RepositoryUtils.convertFromMavenSettingsRepository(repository));
+               }
+            }
+         }
+         request.setRemoteRepositories(settingsRepos);
+
+         DefaultRepositorySystemSession repositorySession = MavenRepositorySystemUtils.newSession();
+         Proxy activeProxy = settings.getActiveProxy();
+         if (activeProxy != null)
+         {
+            DefaultProxySelector dps = new DefaultProxySelector();
+            dps.add(RepositoryUtils.convertFromMavenProxy(activeProxy), activeProxy.getNonProxyHosts());
+            repositorySession.setProxySelector(dps);
+         }
+         LocalRepository localRepo = new LocalRepository(settings.getLocalRepository());
+         repositorySession.setLocalRepositoryManager(system.newLocalRepositoryManager(repositorySession, localRepo));
+         repositorySession.setOffline(offline);
+         List<Mirror> mirrors = executionRequest.getMirrors();
+         if (mirrors != null)
+         {
+            DefaultMirrorSelector mirrorSelector = new DefaultMirrorSelector();
+            for (Mirror mirror : mirrors)
+            {
+               mirrorSelector.add(mirror.getId(), mirror.getUrl(), mirror.getLayout(), false, mirror.getMirrorOf(),
+                        mirror.getMirrorOfLayouts());
+            }
+            repositorySession.setMirrorSelector(mirrorSelector);
+         }
+
+         request.setRepositorySession(repositorySession);
+         request.setProcessPlugins(false);
+         request.setResolveDependencies(false);
+         return request;
+      }
+      catch (RuntimeException e)
+      {
+         throw e;
+      }
+      catch (Exception e)
+      {
+         throw new RuntimeException(
+                  "Could not create Maven project building request", e);
+      }
+      finally
+      {
+         /*
+          * We reset the classloader to prevent potential modules bugs if Classwords container changes classloaders on
+          * us
+          */
+         Thread.currentThread().setContextClassLoader(cl);
+      }
+   }
+
+   private static class Template
+   {
+      private final long[] stamps;
+      private final ProjectBuildingRequest request;
+
+      public Template(long[] stamps, ProjectBuildingRequest request)
+      {
+         this.stamps = stamps;
+         this.request = request;
+      }
+   }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.projects.facets;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.forge.addon.dependencies.Coordinate;
+import org.jboss.forge.addon.dependencies.Dependency;
+import org.jboss.forge.addon.dependencies.util.Dependencies;
+
+/**
+ * An immutable hash index over a list of {@link Dependency} instances, keyed the same way
+ * {@link Dependencies#areEquivalent(Dependency, Dependency)} compares them (groupId, artifactId and classifier). When
+ * several entries share a key, the first one in list order wins, as it would in a linear scan.
+ */
+class DependencyIndex
+{
+   private final Object stamp;
+   private final Map<String, Dependency> index;
+
+   DependencyIndex(Object stamp, List<Dependency> dependencies)
+   {
+      this.stamp = stamp;
+      this.index = new HashMap<String, Dependency>(dependencies.size() * 2);
+      for (Dependency dependency : dependencies)
+      {
+         String key = keyOf(dependency.getCoordinate());
+         if (!index.containsKey(key))
+         {
+            index.put(key, dependency);
+         }
+      }
+   }
+
+   /**
+    * Return <code>true</code> if this index was built from the input identified by the given stamp.
+    */
+   boolean isCurrent(Object stamp)
+   {
+      if (this.stamp instanceof long[] && stamp instanceof long[])
+         return Arrays.equals((long[]) this.stamp, (long[]) stamp);
+      return this.stamp == stamp;
+   }
+
+   /**
+    * Return the indexed {@link Dependency} equivalent to the given one, or <code>null</code> if none exists.
+    */
+   Dependency get(Dependency dependency)
+   {
+      if (dependency == null)
+         return null;
+      return index.get(keyOf(dependency.getCoordinate()));
+   }
+
+   private static String keyOf(Coordinate coordinate)
+   {
+      return coordinate.getGroupId() + ":" + coordinate.getArtifactId() + ":" + coordinate.getClassifier();
+   }
+}
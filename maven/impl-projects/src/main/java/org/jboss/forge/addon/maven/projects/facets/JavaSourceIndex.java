@@ -0,0 +1,215 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.projects.facets;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.jboss.forge.addon.parser.java.facets.JavaTypeSummary;
+import org.jboss.forge.addon.parser.java.resources.JavaResource;
+import org.jboss.forge.addon.resource.DirectoryResource;
+import org.jboss.forge.addon.resource.Resource;
+import org.jboss.forge.parser.ParserException;
+
+/**
+ * An incremental index of the types declared in a source directory. Queries do not walk the whole tree: only
+ * directories whose last-modified time changed since the previous query are listed again. Files changed in place do
+ * not touch their directory, so the stamp of every indexed file is checked on each query, and only files whose
+ * last-modified time or size changed (or that were explicitly invalidated) are parsed again.
+ */
+class JavaSourceIndex
+{
+   /**
+    * Stamps this recent may not reflect a change made in the same tick of the file system clock.
+    */
+   private static final long STAMP_RESOLUTION = 2000;
+
+   private final TreeMap<String, Entry> entries = new TreeMap<String, Entry>();
+   private final TreeMap<String, Directory> directories = new TreeMap<String, Directory>();
+   private String root;
+
+   /**
+    * Return all indexed types in the given source directory annotated with the given annotation type.
+    */
+   synchronized List<JavaTypeSummary> getTypesAnnotatedWith(DirectoryResource sourceDirectory, String annotationType)
+   {
+      refresh(sourceDirectory);
+      List<JavaTypeSummary> result = new ArrayList<JavaTypeSummary>();
+      for (Entry entry : entries.values())
+      {
+         if (entry.summary != null && entry.summary.hasAnnotation(annotationType))
+         {
+            result.add(entry.summary);
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Force the given {@link JavaResource} to be parsed again on the next query.
+    */
+   synchronized void invalidate(JavaResource resource)
+   {
+      String path = resource.getFullyQualifiedName();
+      entries.remove(path);
+      Directory directory = directories.get(new File(path).getParent());
+      if (directory != null)
+         directory.lastModified = -1;
+   }
+
+   private void refresh(DirectoryResource sourceDirectory)
+   {
+      if (!sourceDirectory.getFullyQualifiedName().equals(root))
+      {
+         entries.clear();
+         directories.clear();
+         root = sourceDirectory.getFullyQualifiedName();
+      }
+      refresh(sourceDirectory, root);
+   }
+
+   private void refresh(DirectoryResource directory, String path)
+   {
+      Directory entry = directories.get(path);
+      long lastModified = directory.getUnderlyingResourceObject().lastModified();
+      if (entry == null || entry.lastModified != lastModified)
+      {
+         entry = list(directory, path, lastModified);
+         directories.put(path, entry);
+      }
+      else
+      {
+         for (String file : entry.files)
+         {
+            Entry indexed = entries.get(file);
+            if (indexed == null || indexed.isModified())
+               index(indexed == null ? null : indexed.resource, file, directory);
+         }
+      }
+
+      for (Map.Entry<String, DirectoryResource> child : entry.directories.entrySet())
+      {
+         refresh(child.getValue(), child.getKey());
+      }
+   }
+
+   private Directory list(DirectoryResource directory, String path, long lastModified)
+   {
+      Directory result = new Directory(isRecent(lastModified) ? -1 : lastModified);
+      for (Resource<?> child : directory.listResources())
+      {
+         String childPath = child.getFullyQualifiedName();
+         if (child instanceof DirectoryResource)
+         {
+            result.directories.put(childPath, (DirectoryResource) child);
+         }
+         else if (child instanceof JavaResource)
+         {
+            result.files.add(childPath);
+            Entry entry = entries.get(childPath);
+            if (entry == null || entry.isModified())
+               index((JavaResource) child, childPath, directory);
+         }
+      }
+
+      // Drop files and directories that have gone
+      Directory previous = directories.get(path);
+      if (previous != null)
+      {
+         for (String file : previous.files)
+         {
+            if (!result.files.contains(file))
+               entries.remove(file);
+         }
+         for (String child : previous.directories.keySet())
+         {
+            if (!result.directories.containsKey(child))
+               remove(child);
+         }
+      }
+      return result;
+   }
+
+   private void remove(String path)
+   {
+      String prefix = path + File.separator;
+      directories.remove(path);
+      directories.subMap(prefix, prefix + Character.MAX_VALUE).clear();
+      entries.subMap(prefix, prefix + Character.MAX_VALUE).clear();
+   }
+
+   private void index(JavaResource resource, String path, DirectoryResource directory)
+   {
+      if (resource == null)
+         resource = directory.getChildOfType(JavaResource.class, new File(path).getName());
+
+      // Read the stamp before parsing, so a concurrent change is picked up by the next query
+      File file = resource.getUnderlyingResourceObject();
+      long lastModified = file.lastModified();
+      long length = file.length();
+      JavaTypeSummary summary = null;
+      try
+      {
+         summary = JavaTypeSummary.create(resource);
+      }
+      catch (FileNotFoundException e)
+      {
+         // Deleted while indexing, will be dropped once its directory is listed again
+      }
+      catch (ParserException e)
+      {
+         // Not indexable until fixed
+      }
+      entries.put(path, new Entry(resource, isRecent(lastModified) ? -1 : lastModified, length, summary));
+   }
+
+   private static boolean isRecent(long lastModified)
+   {
+      return System.currentTimeMillis() - lastModified < STAMP_RESOLUTION;
+   }
+
+   private static class Directory
+   {
+      private long lastModified;
+      private final Set<String> files = new HashSet<String>();
+      private final Map<String, DirectoryResource> directories = new LinkedHashMap<String, DirectoryResource>();
+
+      public Directory(long lastModified)
+      {
+         this.lastModified = lastModified;
+      }
+   }
+
+   private static class Entry
+   {
+      private final JavaResource resource;
+      private final long lastModified;
+      private final long length;
+      private final JavaTypeSummary summary;
+
+      public Entry(JavaResource resource, long lastModified, long length, JavaTypeSummary summary)
+      {
+         this.resource = resource;
+         this.lastModified = lastModified;
+         this.length = length;
+         this.summary = summary;
+      }
+
+      public boolean isModified()
+      {
+         File file = resource.getUnderlyingResourceObject();
+         return lastModified != file.lastModified() || length != file.length();
+      }
+   }
+}
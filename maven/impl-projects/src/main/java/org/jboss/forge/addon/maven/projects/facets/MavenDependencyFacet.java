@@ -6,6 +6,7 @@
  */
 package org.jboss.forge.addon.maven.projects.facets;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -16,24 +17,27 @@ import javax.inject.Inject;
 import org.apache.maven.model.DependencyManagement;
 import org.apache.maven.model.Model;
 import org.apache.maven.model.Repository;
-import org.apache.maven.project.DependencyResolutionResult;
-import org.apache.maven.project.ProjectBuildingResult;
 import org.jboss.forge.addon.dependencies.Coordinate;
 import org.jboss.forge.addon.dependencies.Dependency;
 import org.jboss.forge.addon.dependencies.DependencyQuery;
 import org.jboss.forge.addon.dependencies.DependencyRepository;
 import org.jboss.forge.addon.dependencies.DependencyResolver;
+import org.jboss.forge.addon.dependencies.builder.CoordinateBuilder;
 import org.jboss.forge.addon.dependencies.builder.DependencyBuilder;
 import org.jboss.forge.addon.dependencies.builder.DependencyQueryBuilder;
 import org.jboss.forge.addon.dependencies.util.Dependencies;
 import org.jboss.forge.addon.dependencies.util.NonSnapshotDependencyFilter;
+import org.jboss.forge.addon.environment.Environment;
 import org.jboss.forge.addon.facets.AbstractFacet;
 import org.jboss.forge.addon.facets.constraints.FacetConstraint;
 import org.jboss.forge.addon.maven.dependencies.MavenDependencyAdapter;
+import org.jboss.forge.addon.maven.environment.Network;
 import org.jboss.forge.addon.maven.projects.MavenFacet;
 import org.jboss.forge.addon.maven.projects.MavenFacetImpl;
+import org.jboss.forge.addon.maven.projects.MavenModelSnapshot;
 import org.jboss.forge.addon.projects.Project;
 import org.jboss.forge.addon.projects.facets.DependencyFacet;
+import org.jboss.forge.furnace.util.Predicate;
 
 /**
  * @author <a href="mailto:lincolnbaxter@gmail.com">Lincoln Baxter, III</a>
@@ -45,6 +49,17 @@ public class MavenDependencyFacet extends AbstractFacet<Project> implements Depe
    @Inject
    private DependencyResolver resolver;
 
+   @Inject
+   private VersionRangeCache versionCache;
+
+   @Inject
+   private Environment environment;
+
+   private volatile DependencyIndex directIndex;
+   private volatile DependencyIndex directManagedIndex;
+   private volatile DependencyIndex effectiveIndex;
+   private volatile DependencyIndex effectiveManagedIndex;
+
    @Override
    public boolean isInstalled()
    {
@@ -60,31 +75,33 @@ public class MavenDependencyFacet extends AbstractFacet<Project> implements Depe
    @Override
    public void addDirectDependency(final Dependency dep)
    {
-      removeDependency(dep);
-
       MavenFacet maven = getFaceted().getFacet(MavenFacet.class);
-      Model pom = maven.getPOM();
-      List<Dependency> dependencies = MavenDependencyAdapter.fromMavenList(pom.getDependencies());
-      dependencies.add(dep);
-      pom.setDependencies(MavenDependencyAdapter.toMavenList(dependencies));
-      maven.setPOM(pom);
+      maven.beginBatch();
+      boolean success = false;
+      try
+      {
+         removeDependency(dep);
+
+         Model pom = maven.getPOM();
+         List<Dependency> dependencies = MavenDependencyAdapter.fromMavenList(pom.getDependencies());
+         dependencies.add(dep);
+         pom.setDependencies(MavenDependencyAdapter.toMavenList(dependencies));
+         maven.setPOM(pom);
+         success = true;
+      }
+      finally
+      {
+         if (success)
+            maven.commitBatch();
+         else
+            maven.rollbackBatch();
+      }
    }
 
    @Override
    public boolean hasDirectDependency(final Dependency dependency)
    {
-      MavenFacet maven = getFaceted().getFacet(MavenFacet.class);
-      Model pom = maven.getPOM();
-      List<Dependency> dependencies = MavenDependencyAdapter.fromMavenList(pom.getDependencies());
-
-      for (Dependency dep : dependencies)
-      {
-         if (Dependencies.areEquivalent(resolveProperties(dependency), dep))
-         {
-            return true;
-         }
-      }
-      return false;
+      return getDirectIndex().get(resolveProperties(dependency)) != null;
    }
 
    @Override
@@ -93,11 +110,12 @@ public class MavenDependencyFacet extends AbstractFacet<Project> implements Depe
       MavenFacet maven = getFaceted().getFacet(MavenFacet.class);
       Model pom = maven.getPOM();
       List<Dependency> dependencies = MavenDependencyAdapter.fromMavenList(pom.getDependencies());
+      Dependency resolved = resolveProperties(dep);
 
       List<Dependency> toBeRemoved = new ArrayList<Dependency>();
       for (Dependency dependency : dependencies)
       {
-         if (Dependencies.areEquivalent(dependency, resolveProperties(dep)))
+         if (Dependencies.areEquivalent(dependency, resolved))
          {
             toBeRemoved.add(dependency);
          }
@@ -126,18 +144,8 @@ public class MavenDependencyFacet extends AbstractFacet<Project> implements Depe
    @Override
    public Dependency getDirectDependency(final Dependency dependency)
    {
-      MavenFacet maven = getFaceted().getFacet(MavenFacet.class);
-      Model pom = maven.getPOM();
-      List<Dependency> dependencies = MavenDependencyAdapter.fromMavenList(pom.getDependencies());
-
-      for (Dependency dep : dependencies)
-      {
-         if (Dependencies.areEquivalent(resolveProperties(dependency), dep))
-         {
-            return resolveProperties(dep);
-         }
-      }
-      return null;
+      Dependency dep = getDirectIndex().get(resolveProperties(dependency));
+      return dep == null ? null : resolveProperties(dep);
    }
 
    @Override
@@ -149,23 +157,15 @@ public class MavenDependencyFacet extends AbstractFacet<Project> implements Depe
    @Override
    public Dependency getEffectiveDependency(final Dependency manDep)
    {
-      for (Dependency dependency : getEffectiveDependencies())
-      {
-         if (Dependencies.areEquivalent(dependency, resolveProperties(manDep)))
-         {
-            return resolveProperties(dependency);
-         }
-      }
-      return null;
+      Dependency dependency = getEffectiveIndex().get(resolveProperties(manDep));
+      return dependency == null ? null : resolveProperties(dependency);
    }
 
    @Override
    public List<Dependency> getEffectiveDependencies()
    {
       MavenFacetImpl maven = getFaceted().getFacet(MavenFacetImpl.class);
-      ProjectBuildingResult projectBuildingResult = maven.getProjectBuildingResult();
-      DependencyResolutionResult dependencyResolutionResult = projectBuildingResult.getDependencyResolutionResult();
-      List<Dependency> deps = MavenDependencyAdapter.fromAetherList(dependencyResolutionResult.getDependencies());
+      List<Dependency> deps = MavenDependencyAdapter.fromMavenList(maven.getModelSnapshot().getDependencies());
 
       List<Dependency> result = new ArrayList<Dependency>();
       for (Dependency dependency : deps)
@@ -197,18 +197,31 @@ public class MavenDependencyFacet extends AbstractFacet<Project> implements Depe
    @Override
    public void addDirectManagedDependency(final Dependency dep)
    {
-      removeManagedDependency(dep);
-
       MavenFacet maven = getFaceted().getFacet(MavenFacet.class);
-      Model pom = maven.getPOM();
-      DependencyManagement depMan = pom.getDependencyManagement();
-      depMan = depMan != null ? depMan : new DependencyManagement();
+      maven.beginBatch();
+      boolean success = false;
+      try
+      {
+         removeManagedDependency(dep);
 
-      List<Dependency> managedDependencies = MavenDependencyAdapter.fromMavenList(depMan.getDependencies());
-      managedDependencies.add(dep);
-      depMan.setDependencies(MavenDependencyAdapter.toMavenList(managedDependencies));
-      pom.setDependencyManagement(depMan);
-      maven.setPOM(pom);
+         Model pom = maven.getPOM();
+         DependencyManagement depMan = pom.getDependencyManagement();
+         depMan = depMan != null ? depMan : new DependencyManagement();
+
+         List<Dependency> managedDependencies = MavenDependencyAdapter.fromMavenList(depMan.getDependencies());
+         managedDependencies.add(dep);
+         depMan.setDependencies(MavenDependencyAdapter.toMavenList(managedDependencies));
+         pom.setDependencyManagement(depMan);
+         maven.setPOM(pom);
+         success = true;
+      }
+      finally
+      {
+         if (success)
+            maven.commitBatch();
+         else
+            maven.rollbackBatch();
+      }
    }
 
    @Override
@@ -220,40 +233,14 @@ public class MavenDependencyFacet extends AbstractFacet<Project> implements Depe
    @Override
    public Dependency getEffectiveManagedDependency(final Dependency manDep)
    {
-      MavenFacet maven = getFaceted().getFacet(MavenFacet.class);
-      DependencyManagement depMan = ((MavenFacetImpl) maven).getProjectBuildingResult().getProject()
-               .getDependencyManagement();
-      List<Dependency> managedDependencies = (depMan != null ? MavenDependencyAdapter.fromMavenList(depMan
-               .getDependencies()) : new ArrayList<Dependency>());
-
-      for (Dependency managedDependency : managedDependencies)
-      {
-         if (Dependencies.areEquivalent(managedDependency, resolveProperties(manDep)))
-         {
-            return resolveProperties(managedDependency);
-         }
-      }
-      return null;
+      Dependency managedDependency = getEffectiveManagedIndex().get(resolveProperties(manDep));
+      return managedDependency == null ? null : resolveProperties(managedDependency);
    }
 
    @Override
    public boolean hasDirectManagedDependency(final Dependency managedDependency)
    {
-      MavenFacet maven = getFaceted().getFacet(MavenFacet.class);
-      Model pom = maven.getPOM();
-      DependencyManagement depMan = pom.getDependencyManagement();
-
-      List<Dependency> managedDependencies = depMan != null ? MavenDependencyAdapter.fromMavenList(depMan
-               .getDependencies()) : new ArrayList<Dependency>();
-
-      for (Dependency manDep : managedDependencies)
-      {
-         if (Dependencies.areEquivalent(resolveProperties(managedDependency), manDep))
-         {
-            return true;
-         }
-      }
-      return false;
+      return getDirectManagedIndex().get(resolveProperties(managedDependency)) != null;
    }
 
    @Override
@@ -304,21 +291,8 @@ public class MavenDependencyFacet extends AbstractFacet<Project> implements Depe
    @Override
    public Dependency getDirectManagedDependency(final Dependency manDep)
    {
-      MavenFacet maven = getFaceted().getFacet(MavenFacet.class);
-      Model pom = maven.getPOM();
-      DependencyManagement depMan = pom.getDependencyManagement();
-
-      List<Dependency> managedDependencies = depMan != null ? MavenDependencyAdapter.fromMavenList(depMan
-               .getDependencies()) : new ArrayList<Dependency>();
-
-      for (Dependency managedDependency : managedDependencies)
-      {
-         if (Dependencies.areEquivalent(managedDependency, resolveProperties(manDep)))
-         {
-            return resolveProperties(managedDependency);
-         }
-      }
-      return null;
+      Dependency managedDependency = getDirectManagedIndex().get(resolveProperties(manDep));
+      return managedDependency == null ? null : resolveProperties(managedDependency);
    }
 
    @Override
@@ -352,14 +326,26 @@ public class MavenDependencyFacet extends AbstractFacet<Project> implements Depe
       {
          query.setFilter(new NonSnapshotDependencyFilter());
       }
-      List<Coordinate> versions = resolver.resolveVersions(query);
+      List<Coordinate> versions = resolveAvailableVersions(query);
       return versions;
    }
 
    @Override
    public List<Coordinate> resolveAvailableVersions(final DependencyQuery query)
    {
-      List<Coordinate> versions = resolver.resolveVersions(query);
+      List<Coordinate> versions = new ArrayList<Coordinate>();
+      Predicate<Dependency> filter = query.getDependencyFilter();
+      boolean offline = Network.isOffline(environment);
+      File localRepository = offline ? getFaceted().getFacet(MavenFacet.class).getLocalRepositoryDirectory()
+               .getUnderlyingResourceObject() : null;
+      for (String version : versionCache.getVersions(query, resolver, offline, localRepository))
+      {
+         CoordinateBuilder coordinate = CoordinateBuilder.create(query.getCoordinate()).setVersion(version);
+         if (filter == null || filter.accept(DependencyBuilder.create().setCoordinate(coordinate)))
+         {
+            versions.add(coordinate);
+         }
+      }
       return versions;
    }
 
@@ -473,6 +459,65 @@ public class MavenDependencyFacet extends AbstractFacet<Project> implements Depe
       return result;
    }
 
+   /*
+    * Dependency indexes, rebuilt lazily whenever the POM (or the effective model) changes
+    */
+   private DependencyIndex getDirectIndex()
+   {
+      MavenFacetImpl maven = getFaceted().getFacet(MavenFacetImpl.class);
+      long[] stamp = maven.getModelStamp();
+      DependencyIndex index = directIndex;
+      if (index == null || !index.isCurrent(stamp))
+      {
+         index = new DependencyIndex(stamp, MavenDependencyAdapter.fromMavenList(maven.getPOM().getDependencies()));
+         directIndex = index;
+      }
+      return index;
+   }
+
+   private DependencyIndex getDirectManagedIndex()
+   {
+      MavenFacetImpl maven = getFaceted().getFacet(MavenFacetImpl.class);
+      long[] stamp = maven.getModelStamp();
+      DependencyIndex index = directManagedIndex;
+      if (index == null || !index.isCurrent(stamp))
+      {
+         DependencyManagement depMan = maven.getPOM().getDependencyManagement();
+         List<Dependency> managedDependencies = depMan != null ? MavenDependencyAdapter.fromMavenList(depMan
+                  .getDependencies()) : new ArrayList<Dependency>();
+         index = new DependencyIndex(stamp, managedDependencies);
+         directManagedIndex = index;
+      }
+      return index;
+   }
+
+   private DependencyIndex getEffectiveIndex()
+   {
+      MavenFacetImpl maven = getFaceted().getFacet(MavenFacetImpl.class);
+      MavenModelSnapshot snapshot = maven.getModelSnapshot();
+      DependencyIndex index = effectiveIndex;
+      if (index == null || !index.isCurrent(snapshot))
+      {
+         index = new DependencyIndex(snapshot, getEffectiveDependencies());
+         effectiveIndex = index;
+      }
+      return index;
+   }
+
+   private DependencyIndex getEffectiveManagedIndex()
+   {
+      MavenFacetImpl maven = getFaceted().getFacet(MavenFacetImpl.class);
+      MavenModelSnapshot snapshot = maven.getModelSnapshot();
+      DependencyIndex index = effectiveManagedIndex;
+      if (index == null || !index.isCurrent(snapshot))
+      {
+         index = new DependencyIndex(snapshot, MavenDependencyAdapter.fromMavenList(snapshot
+                  .getManagedDependencies()));
+         effectiveManagedIndex = index;
+      }
+      return index;
+   }
+
    @Override
    public void setFaceted(Project project)
    {
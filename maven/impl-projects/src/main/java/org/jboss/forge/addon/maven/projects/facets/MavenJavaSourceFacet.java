@@ -19,6 +19,8 @@ import org.jboss.forge.addon.facets.constraints.FacetConstraint;
 import org.jboss.forge.addon.maven.projects.MavenFacet;
 import org.jboss.forge.addon.maven.projects.util.Packages;
 import org.jboss.forge.addon.parser.java.facets.JavaSourceFacet;
+import org.jboss.forge.addon.parser.java.facets.JavaTypeIndex;
+import org.jboss.forge.addon.parser.java.facets.JavaTypeSummary;
 import org.jboss.forge.addon.parser.java.resources.JavaResource;
 import org.jboss.forge.addon.parser.java.resources.JavaResourceVisitor;
 import org.jboss.forge.addon.projects.Project;
@@ -34,8 +36,11 @@ import org.jboss.forge.parser.java.JavaSource;
  */
 @Dependent
 @FacetConstraint(MavenFacet.class)
-public class MavenJavaSourceFacet extends AbstractFacet<Project> implements JavaSourceFacet
+public class MavenJavaSourceFacet extends AbstractFacet<Project> implements JavaSourceFacet, JavaTypeIndex
 {
+   private final JavaSourceIndex index = new JavaSourceIndex();
+   private final JavaSourceIndex testIndex = new JavaSourceIndex();
+
    @Override
    public List<DirectoryResource> getSourceDirectories()
    {
@@ -181,13 +186,19 @@ public class MavenJavaSourceFacet extends AbstractFacet<Project> implements Java
    @Override
    public JavaResource saveJavaSource(final JavaSource<?> source) throws FileNotFoundException
    {
-      return getJavaResource(source.getQualifiedName()).setContents(source);
+      JavaResource resource = getJavaResource(source.getQualifiedName());
+      resource.setContentsIfChanged(source.toString());
+      index.invalidate(resource);
+      return resource;
    }
 
    @Override
    public JavaResource saveTestJavaSource(final JavaSource<?> source) throws FileNotFoundException
    {
-      return getTestJavaResource(source.getQualifiedName()).setContents(source);
+      JavaResource resource = getTestJavaResource(source.getQualifiedName());
+      resource.setContentsIfChanged(source.toString());
+      testIndex.invalidate(resource);
+      return resource;
    }
 
    @Override
@@ -232,4 +243,16 @@ public class MavenJavaSourceFacet extends AbstractFacet<Project> implements Java
       });
    }
 
+   @Override
+   public List<JavaTypeSummary> getTypesAnnotatedWith(final String annotationType)
+   {
+      return index.getTypesAnnotatedWith(getSourceDirectory(), annotationType);
+   }
+
+   @Override
+   public List<JavaTypeSummary> getTestTypesAnnotatedWith(final String annotationType)
+   {
+      return testIndex.getTypesAnnotatedWith(getTestSourceDirectory(), annotationType);
+   }
+
 }
@@ -99,8 +99,8 @@ public class MavenPackagingFacet extends AbstractFacet<Project> implements Packa
    public Resource<?> getFinalArtifact()
    {
       MavenFacetImpl mvn = (MavenFacetImpl) getFaceted().getFacet(MavenFacet.class);
-      String directory = mvn.getProjectBuildingResult().getProject().getBuild().getDirectory();
-      String finalName = mvn.getProjectBuildingResult().getProject().getBuild().getFinalName();
+      String directory = mvn.getModelSnapshot().getBuildDirectory();
+      String finalName = mvn.getModelSnapshot().getFinalName();
 
       if (Strings.isNullOrEmpty(directory))
       {
@@ -0,0 +1,391 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.projects.facets;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Singleton;
+
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionConstraint;
+import org.eclipse.aether.version.VersionScheme;
+import org.jboss.forge.addon.dependencies.Coordinate;
+import org.jboss.forge.addon.dependencies.DependencyQuery;
+import org.jboss.forge.addon.dependencies.DependencyRepository;
+import org.jboss.forge.addon.dependencies.DependencyResolver;
+import org.jboss.forge.addon.dependencies.builder.DependencyQueryBuilder;
+import org.jboss.forge.furnace.container.cdi.events.Local;
+import org.jboss.forge.furnace.event.PreShutdown;
+import org.jboss.forge.furnace.util.OperatingSystemUtils;
+
+/**
+ * A persistent cache of the versions available for an artifact, keyed by groupId, artifactId, requested version range
+ * and repositories. Entries older than the TTL given by the system property {@value #TTL_PROPERTY} (in seconds,
+ * default {@value #DEFAULT_TTL}) are still returned, but trigger a refresh in the background; only missing entries are
+ * resolved on the calling thread. When offline, the cache is used exclusively, and missing entries are answered from the
+ * versions installed in the local repository. A TTL of <code>0</code> disables the cache while online.
+ */
+@Singleton
+class VersionRangeCache
+{
+   static final String TTL_PROPERTY = "forge.maven.versions.cache.ttl";
+   static final long DEFAULT_TTL = 3600;
+
+   private static final Logger log = Logger.getLogger(VersionRangeCache.class.getName());
+
+   private final File cacheDir;
+   private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+   private final Set<String> refreshing = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+   private ExecutorService executor;
+
+   public VersionRangeCache()
+   {
+      this(new File(OperatingSystemUtils.getUserForgeDir(), "cache/maven/versions"));
+   }
+
+   VersionRangeCache(File cacheDir)
+   {
+      this.cacheDir = cacheDir;
+   }
+
+   /**
+    * Return the versions available for the coordinate of the given {@link DependencyQuery}, ignoring its filter. The
+    * local repository is only used when offline.
+    */
+   public List<String> getVersions(DependencyQuery query, DependencyResolver resolver, boolean offline,
+            File localRepository)
+   {
+      final String key = computeKey(query);
+      Entry entry = getEntry(key);
+      if (offline)
+      {
+         return entry == null ? getLocalVersions(query.getCoordinate(), localRepository) : entry.versions;
+      }
+
+      long ttl = Long.getLong(TTL_PROPERTY, DEFAULT_TTL) * 1000;
+      if (entry == null || ttl <= 0)
+      {
+         return fetch(key, query, resolver).versions;
+      }
+
+      if (System.currentTimeMillis() - entry.fetched > ttl)
+      {
+         refresh(key, query, resolver);
+      }
+      return entry.versions;
+   }
+
+   public synchronized void preShutdown(@Observes @Local PreShutdown event)
+   {
+      if (executor != null)
+      {
+         executor.shutdownNow();
+         executor = null;
+      }
+      entries.clear();
+   }
+
+   private void refresh(final String key, final DependencyQuery query, final DependencyResolver resolver)
+   {
+      if (!refreshing.add(key))
+         return;
+
+      Runnable task = new Runnable()
+      {
+         @Override
+         public void run()
+         {
+            try
+            {
+               fetch(key, query, resolver);
+            }
+            catch (RuntimeException e)
+            {
+               log.log(Level.FINE, "Could not refresh versions of [" + query.getCoordinate() + "]", e);
+            }
+            finally
+            {
+               refreshing.remove(key);
+            }
+         }
+      };
+
+      try
+      {
+         getExecutor().execute(task);
+      }
+      catch (RejectedExecutionException e)
+      {
+         refreshing.remove(key);
+      }
+   }
+
+   private Entry fetch(String key, DependencyQuery query, DependencyResolver resolver)
+   {
+      DependencyQueryBuilder unfiltered = DependencyQueryBuilder.create(query.getCoordinate());
+      if (query.getDependencyRepositories() != null)
+         unfiltered.setRepositories(query.getDependencyRepositories());
+
+      List<String> versions = new ArrayList<String>();
+      for (Coordinate coordinate : resolver.resolveVersions(unfiltered))
+      {
+         versions.add(coordinate.getVersion());
+      }
+
+      Entry entry = new Entry(System.currentTimeMillis(), Collections.unmodifiableList(versions));
+      entries.put(key, entry);
+      write(key, entry);
+      return entry;
+   }
+
+   /**
+    * Lists, in ascending order, the versions of the given artifact installed in the local repository that match its
+    * version or version range. The result is not cached, since the local repository may change at any time.
+    */
+   static List<String> getLocalVersions(final Coordinate coordinate, File localRepository)
+   {
+      List<String> result = new ArrayList<String>();
+      if (localRepository == null)
+         return result;
+
+      File artifactDir = new File(localRepository, coordinate.getGroupId().replace('.', File.separatorChar)
+               + File.separator + coordinate.getArtifactId());
+      File[] versionDirs = artifactDir.listFiles();
+      if (versionDirs == null)
+         return result;
+
+      try
+      {
+         VersionScheme scheme = new GenericVersionScheme();
+         String requested = coordinate.getVersion();
+         VersionConstraint constraint = null;
+         if (requested != null && !requested.isEmpty())
+         {
+            constraint = scheme.parseVersionConstraint(requested.matches("(\\(|\\[).*?(\\)|\\])") ? requested
+                     : "[" + requested + "]");
+         }
+         List<Version> versions = new ArrayList<Version>();
+         for (File versionDir : versionDirs)
+         {
+            String[] poms = versionDir.list(new FilenameFilter()
+            {
+               @Override
+               public boolean accept(File dir, String name)
+               {
+                  return name.startsWith(coordinate.getArtifactId() + "-") && name.endsWith(".pom");
+               }
+            });
+            if (poms == null || poms.length == 0)
+               continue;
+            Version version = scheme.parseVersion(versionDir.getName());
+            if (constraint == null || constraint.containsVersion(version))
+               versions.add(version);
+         }
+         Collections.sort(versions);
+         for (Version version : versions)
+         {
+            result.add(version.toString());
+         }
+      }
+      catch (InvalidVersionSpecificationException e)
+      {
+         log.log(Level.FINE, "Could not list local versions of [" + coordinate + "]", e);
+      }
+      return result;
+   }
+
+   private synchronized ExecutorService getExecutor()
+   {
+      if (executor == null)
+      {
+         executor = Executors.newSingleThreadExecutor(new ThreadFactory()
+         {
+            @Override
+            public Thread newThread(Runnable r)
+            {
+               Thread thread = new Thread(r, "Forge Version Range Refresh");
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+      return executor;
+   }
+
+   private Entry getEntry(String key)
+   {
+      Entry entry = entries.get(key);
+      if (entry == null)
+      {
+         entry = read(key);
+         if (entry != null)
+         {
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing != null)
+               entry = existing;
+         }
+      }
+      return entry;
+   }
+
+   private Entry read(String key)
+   {
+      File file = getEntryFile(key);
+      if (!file.isFile())
+         return null;
+
+      BufferedReader reader = null;
+      try
+      {
+         reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+         if (!key.equals(reader.readLine()))
+            return null;
+         long fetched = Long.parseLong(reader.readLine());
+         List<String> versions = new ArrayList<String>();
+         String line;
+         while ((line = reader.readLine()) != null)
+         {
+            versions.add(line);
+         }
+         return new Entry(fetched, Collections.unmodifiableList(versions));
+      }
+      catch (Exception e)
+      {
+         log.log(Level.FINE, "Discarding unreadable version cache entry [" + file + "]", e);
+         return null;
+      }
+      finally
+      {
+         closeQuietly(reader);
+      }
+   }
+
+   private void write(String key, Entry entry)
+   {
+      File file = getEntryFile(key);
+      File temp = new File(file.getParentFile(), file.getName() + "." + Thread.currentThread().getId() + ".tmp");
+      Writer writer = null;
+      try
+      {
+         cacheDir.mkdirs();
+         writer = new OutputStreamWriter(new FileOutputStream(temp), "UTF-8");
+         writer.write(key + "\n" + entry.fetched + "\n");
+         for (String version : entry.versions)
+         {
+            writer.write(version + "\n");
+         }
+         writer.close();
+         writer = null;
+         if (!temp.renameTo(file))
+         {
+            file.delete();
+            temp.renameTo(file);
+         }
+      }
+      catch (IOException e)
+      {
+         log.log(Level.FINE, "Could not write version cache entry [" + file + "]", e);
+      }
+      finally
+      {
+         closeQuietly(writer);
+         temp.delete();
+      }
+   }
+
+   private File getEntryFile(String key)
+   {
+      try
+      {
+         MessageDigest digest = MessageDigest.getInstance("SHA-1");
+         byte[] bytes = digest.digest(key.getBytes("UTF-8"));
+         StringBuilder sb = new StringBuilder(bytes.length * 2);
+         for (byte b : bytes)
+         {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+         }
+         return new File(cacheDir, sb.append(".txt").toString());
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+         throw new IllegalStateException("SHA-1 is not supported by this JVM", e);
+      }
+      catch (IOException e)
+      {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   private static String computeKey(DependencyQuery query)
+   {
+      Coordinate coordinate = query.getCoordinate();
+      StringBuilder key = new StringBuilder();
+      key.append(coordinate.getGroupId()).append(':').append(coordinate.getArtifactId()).append(':')
+               .append(coordinate.getVersion() == null ? "" : coordinate.getVersion());
+      List<DependencyRepository> repositories = query.getDependencyRepositories();
+      if (repositories != null)
+      {
+         for (DependencyRepository repository : repositories)
+         {
+            key.append(' ').append(repository.getId()).append('=').append(repository.getUrl());
+         }
+      }
+      return key.toString();
+   }
+
+   private static void closeQuietly(Closeable closeable)
+   {
+      if (closeable != null)
+      {
+         try
+         {
+            closeable.close();
+         }
+         catch (IOException ignored)
+         {
+         }
+      }
+   }
+
+   private static class Entry
+   {
+      private final long fetched;
+      private final List<String> versions;
+
+      public Entry(long fetched, List<String> versions)
+      {
+         this.fetched = fetched;
+         this.versions = versions;
+      }
+   }
+}
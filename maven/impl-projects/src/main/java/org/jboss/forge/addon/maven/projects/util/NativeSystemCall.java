@@ -33,35 +33,47 @@ public class NativeSystemCall
    public static int execFromPath(final String command, final String[] parms, final OutputStream out,
             final DirectoryResource path) throws IOException
    {
-      try
-      {
-         String[] commandTokens = parms == null ? new String[1] : new String[parms.length + 1];
-         commandTokens[0] = command;
+      String[] commandTokens = parms == null ? new String[1] : new String[parms.length + 1];
+      commandTokens[0] = command;
 
-         if (commandTokens.length > 1)
-         {
-            System.arraycopy(parms, 0, commandTokens, 1, parms.length);
-         }
+      if (commandTokens.length > 1)
+      {
+         System.arraycopy(parms, 0, commandTokens, 1, parms.length);
+      }
 
-         ProcessBuilder builder = new ProcessBuilder(commandTokens);
-         builder.directory(path.getUnderlyingResourceObject());
-         builder.redirectErrorStream(true);
-         Process p = builder.start();
+      ProcessBuilder builder = new ProcessBuilder(commandTokens);
+      builder.directory(path.getUnderlyingResourceObject());
+      builder.redirectErrorStream(true);
+      Process p = builder.start();
 
+      boolean completed = false;
+      try
+      {
+         // Output is copied on the calling thread, which would otherwise only wait for the process
          InputStream stdout = p.getInputStream();
+         byte[] buf = new byte[8192];
+         int read;
+         while ((read = stdout.read(buf)) != -1)
+         {
+            out.write(buf, 0, read);
+            out.flush();
+         }
 
-         Thread outThread = new Thread(new Receiver(stdout, out));
-         outThread.start();
-         outThread.join();
-
-         return p.waitFor();
-
+         int result = p.waitFor();
+         completed = true;
+         return result;
       }
       catch (InterruptedException e)
       {
-         e.printStackTrace();
+         Thread.currentThread().interrupt();
          return -1;
       }
+      finally
+      {
+         // Do not leave the process running if the output could not be delivered or the caller gave up
+         if (!completed)
+            p.destroy();
+      }
    }
 
    /**
@@ -82,38 +94,4 @@ public class NativeSystemCall
 
       Runtime.getRuntime().exec(commandTokens, null);
    }
-
-   /**
-    * Handles streaming output from executed Processes
-    */
-   private static class Receiver implements Runnable
-   {
-      private final InputStream in;
-      private final OutputStream out;
-
-      public Receiver(InputStream in, OutputStream out)
-      {
-         this.in = in;
-         this.out = out;
-      }
-
-      @Override
-      public void run()
-      {
-         try
-         {
-            byte[] buf = new byte[1024];
-            int read;
-            while ((read = in.read(buf)) != -1)
-            {
-               out.write(buf, 0, read);
-            }
-
-         }
-         catch (IOException e)
-         {
-            throw new RuntimeException("Error reading input from child process", e);
-         }
-      }
-   }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.projects.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replaces <code>${property}</code> expressions in a single pass over the input, using an immutable snapshot of the
+ * given properties. Property values are themselves interpolated (and memoized) on first use; expressions that are
+ * unknown or part of a reference cycle are left untouched. Values computed while a cycle was cut depend on where the
+ * cycle was entered, so they are never memoized.
+ *
+ * This class is thread-safe.
+ */
+public class PropertyInterpolator
+{
+   private static final String PREFIX = "${";
+   private static final char SUFFIX = '}';
+
+   private final Map<String, String> properties;
+   private final Map<String, String> resolved = new HashMap<String, String>();
+
+   public PropertyInterpolator(Map<String, String> properties)
+   {
+      this.properties = new HashMap<String, String>(properties);
+   }
+
+   /**
+    * Return the given input with all known <code>${property}</code> expressions replaced by their values.
+    */
+   public String interpolate(String input)
+   {
+      if (input == null || input.indexOf(PREFIX) == -1)
+         return input;
+      return interpolate(input, new Resolution());
+   }
+
+   private String interpolate(String input, Resolution resolution)
+   {
+      int start = input.indexOf(PREFIX);
+      if (start == -1)
+         return input;
+
+      StringBuilder result = new StringBuilder(input.length() + 16);
+      int position = 0;
+      while (start != -1)
+      {
+         int end = input.indexOf(SUFFIX, start + PREFIX.length());
+         if (end == -1)
+            break;
+
+         result.append(input, position, start);
+         String name = input.substring(start + PREFIX.length(), end);
+         String value = resolve(name, resolution);
+         if (value == null)
+            result.append(input, start, end + 1);
+         else
+            result.append(value);
+
+         position = end + 1;
+         start = input.indexOf(PREFIX, position);
+      }
+      result.append(input, position, input.length());
+      return result.toString();
+   }
+
+   private String resolve(String name, Resolution resolution)
+   {
+      synchronized (resolved)
+      {
+         String value = resolved.get(name);
+         if (value != null)
+            return value;
+      }
+
+      String raw = properties.get(name);
+      if (raw == null)
+         return null;
+      if (!resolution.resolving.add(name))
+      {
+         resolution.cut = true;
+         return null;
+      }
+
+      boolean cut = resolution.cut;
+      resolution.cut = false;
+      try
+      {
+         String value = interpolate(raw, resolution);
+         if (!resolution.cut)
+         {
+            synchronized (resolved)
+            {
+               resolved.put(name, value);
+            }
+         }
+         return value;
+      }
+      finally
+      {
+         resolution.resolving.remove(name);
+         resolution.cut |= cut;
+      }
+   }
+
+   /**
+    * The properties being resolved by one call to {@link PropertyInterpolator#interpolate(String)}, and whether a
+    * reference cycle was cut while resolving them.
+    */
+   private static class Resolution
+   {
+      private final Set<String> resolving = new HashSet<String>();
+      private boolean cut;
+   }
+}
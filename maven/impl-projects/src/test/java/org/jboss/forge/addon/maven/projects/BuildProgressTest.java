@@ -0,0 +1,207 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.projects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.forge.addon.projects.building.BuildListener;
+import org.junit.Test;
+
+/**
+ * Test case for {@link BuildProgress} class
+ */
+public class BuildProgressTest
+{
+   private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+   private final BuildListener listener = new BuildListener()
+   {
+      @Override
+      public void output(String line, boolean error)
+      {
+      }
+
+      @Override
+      public void moduleStarted(String module)
+      {
+         events.add("started " + module);
+      }
+
+      @Override
+      public void moduleFinished(String module, boolean success)
+      {
+         events.add("finished " + module + " " + success);
+      }
+
+      @Override
+      public void testsCompleted(String module, int run, int failures, int errors, int skipped)
+      {
+         events.add("tests " + module + " " + run + "/" + failures + "/" + errors + "/" + skipped);
+      }
+   };
+
+   @Test
+   public void testModulesAndTestsAreReported()
+   {
+      BuildProgress progress = new BuildProgress(listener);
+      PrintStream out = new PrintStream(progress.getOutputStream(false), true);
+      out.print("[INFO] Building core 1.0-SNAPSHOT\r\n");
+      out.println("Tests run: 2, Failures: 0, Errors: 0, Skipped: 0, Time elapsed: 0.1 sec");
+      out.println("Tests run: 5, Failures: 1, Errors: 0, Skipped: 2");
+      out.println("[INFO] Building jar: /tmp/core.jar");
+      out.println("[INFO] Building Web Module 1.0-SNAPSHOT");
+      out.close();
+      progress.finish(false);
+
+      assertEquals("started core", events.get(0));
+      assertEquals("tests core 5/1/0/2", events.get(1));
+      assertEquals("finished core true", events.get(2));
+      assertEquals("started Web Module", events.get(3));
+      assertEquals("finished Web Module false", events.get(4));
+      assertEquals(5, events.size());
+   }
+
+   @Test(expected = CancellationException.class)
+   public void testOutputFailsOnceCancelled() throws Exception
+   {
+      BuildProgress progress = new BuildProgress(listener);
+      progress.cancel();
+      progress.getOutputStream(false).write(new byte[] { 'x', '\n' }, 0, 2);
+   }
+
+   @Test
+   public void testFailingTestSummaryIsReported()
+   {
+      BuildProgress progress = new BuildProgress(listener);
+      PrintStream out = new PrintStream(progress.getOutputStream(false), true);
+      out.println("[INFO] Building core 1.0-SNAPSHOT");
+      out.println("[ERROR] Tests run: 3, Failures: 1, Errors: 1, Skipped: 0");
+      out.println("[WARNING] Tests run: 4, Failures: 0, Errors: 0, Skipped: 1");
+      progress.finish(false);
+
+      assertEquals("tests core 3/1/1/0", events.get(1));
+      assertEquals("tests core 4/0/0/1", events.get(2));
+   }
+
+   @Test
+   public void testConcurrentModulesAreTrackedPerThread() throws Exception
+   {
+      BuildProgress progress = new BuildProgress(listener);
+      final PrintStream out = new PrintStream(progress.getOutputStream(false), true);
+      final CountDownLatch started = new CountDownLatch(1);
+      final CountDownLatch reported = new CountDownLatch(1);
+      Thread api = new Thread()
+      {
+         @Override
+         public void run()
+         {
+            out.println("[INFO] Building api 1.0-SNAPSHOT");
+            started.countDown();
+            await(reported);
+            out.println("Tests run: 1, Failures: 0, Errors: 0, Skipped: 0");
+         }
+      };
+      Thread impl = new Thread()
+      {
+         @Override
+         public void run()
+         {
+            await(started);
+            out.println("[INFO] Building impl 1.0-SNAPSHOT");
+            out.println("Tests run: 2, Failures: 0, Errors: 0, Skipped: 0");
+            reported.countDown();
+         }
+      };
+      api.start();
+      impl.start();
+      api.join();
+      impl.join();
+      progress.finish(true);
+
+      assertTrue(events.contains("tests impl 2/0/0/0"));
+      assertTrue(events.contains("tests api 1/0/0/0"));
+      assertTrue(events.contains("finished api true"));
+      assertTrue(events.contains("finished impl true"));
+   }
+
+   @Test
+   public void testCancelledTaskIsAbortedAndInterrupted() throws Exception
+   {
+      final CountDownLatch running = new CountDownLatch(1);
+      final CountDownLatch stopped = new CountDownLatch(1);
+      FutureTask<String> task = new BuildProgress(listener).createTask(new BuildProgress.Build<String>()
+      {
+         @Override
+         public String run(PrintStream out, PrintStream err) throws Exception
+         {
+            try
+            {
+               out.println("[INFO] Building core 1.0-SNAPSHOT");
+               running.countDown();
+               while (true)
+               {
+                  Thread.sleep(10);
+                  out.println("[INFO] still building");
+               }
+            }
+            finally
+            {
+               stopped.countDown();
+            }
+         }
+      });
+      Thread thread = new Thread(task);
+      thread.start();
+      assertTrue(running.await(5, TimeUnit.SECONDS));
+
+      assertTrue(task.cancel(false));
+      assertTrue(stopped.await(5, TimeUnit.SECONDS));
+      thread.join(5000);
+      assertTrue(task.isCancelled());
+      assertTrue(events.contains("finished core false"));
+   }
+
+   @Test
+   public void testTaskCancelledBeforeStartNeverRuns() throws Exception
+   {
+      final CountDownLatch ran = new CountDownLatch(1);
+      FutureTask<String> task = new BuildProgress(listener).createTask(new BuildProgress.Build<String>()
+      {
+         @Override
+         public String run(PrintStream out, PrintStream err) throws Exception
+         {
+            ran.countDown();
+            return "done";
+         }
+      });
+      task.cancel(false);
+      task.run();
+      assertEquals(1, ran.getCount());
+   }
+
+   private static void await(CountDownLatch latch)
+   {
+      try
+      {
+         latch.await(5, TimeUnit.SECONDS);
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+   }
+}
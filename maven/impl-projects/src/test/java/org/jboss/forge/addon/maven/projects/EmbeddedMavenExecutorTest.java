@@ -0,0 +1,154 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.projects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.project.MavenProject;
+import org.jboss.forge.addon.maven.projects.EmbeddedMavenExecutor.Invocation;
+import org.jboss.forge.addon.maven.projects.EmbeddedMavenExecutor.PomStamps;
+import org.junit.Test;
+
+/**
+ * Test case for {@link EmbeddedMavenExecutor} class
+ */
+public class EmbeddedMavenExecutorTest
+{
+   @Test
+   public void testParseProperties()
+   {
+      Invocation invocation = Invocation.parse(new String[] { "-Dskip=true", "-D", "name=value", "--define",
+               "flag", "install" });
+      assertEquals("true", invocation.userProperties.getProperty("skip"));
+      assertEquals("value", invocation.userProperties.getProperty("name"));
+      assertEquals("true", invocation.userProperties.getProperty("flag"));
+      assertEquals(Arrays.asList("install"), invocation.goals);
+
+      assertNull(Invocation.parse(new String[] { "install", "-D" }));
+      assertNull(Invocation.parse(new String[] { "-D=value" }));
+   }
+
+   @Test
+   public void testParseProfiles()
+   {
+      Invocation invocation = Invocation.parse(new String[] { "-P", "!x,+y", "-Pz,-w" });
+      assertEquals(Arrays.asList("y", "z"), invocation.activeProfiles);
+      assertEquals(Arrays.asList("x", "w"), invocation.inactiveProfiles);
+   }
+
+   @Test
+   public void testParseOptions()
+   {
+      Invocation invocation = Invocation.parse(new String[] { "-T", "1C", "-f", "module/pom.xml", "-o", "-U", "-N",
+               "-q", "-B", "clean", "package" });
+      assertEquals("1C", invocation.threads);
+      assertEquals("module/pom.xml", invocation.pom);
+      assertTrue(invocation.offline);
+      assertTrue(invocation.updateSnapshots);
+      assertFalse(invocation.recursive);
+      assertEquals(MavenExecutionRequest.LOGGING_LEVEL_ERROR, invocation.loggingLevel);
+      assertEquals(Arrays.asList("clean", "package"), invocation.goals);
+
+      assertEquals("4", Invocation.parse(new String[] { "--threads4" }).threads);
+      assertNull(Invocation.parse(new String[] { "-T" }));
+   }
+
+   @Test
+   public void testUnsupportedOptionsAreRejected()
+   {
+      assertNull(Invocation.parse(new String[] { "install", "--projects", "module" }));
+      assertNull(Invocation.parse(new String[] { "-rf", ":module" }));
+      assertFalse(new EmbeddedMavenExecutor().supports(new String[] { "-l", "build.log" }));
+      assertTrue(new EmbeddedMavenExecutor().supports(new String[] { "-X", "install" }));
+   }
+
+   @Test
+   public void testSystemPropertiesIncludeEnvironmentAndMavenVersion()
+   {
+      Properties properties = EmbeddedMavenExecutor.getSystemProperties();
+      assertEquals(System.getProperty("java.home"), properties.getProperty("java.home"));
+      // Maven upper-cases the variable names on Windows only
+      if (!System.getProperty("os.name").startsWith("Windows"))
+      {
+         for (Map.Entry<String, String> variable : System.getenv().entrySet())
+         {
+            assertEquals(variable.getValue(), properties.getProperty("env." + variable.getKey()));
+         }
+      }
+      assertNotNull(properties.getProperty("maven.build.version"));
+   }
+
+   @Test
+   public void testReactorPomsAreStamped() throws Exception
+   {
+      File dir = File.createTempFile("reactor", "");
+      dir.delete();
+      dir.mkdirs();
+      try
+      {
+         File parentPom = createPom(dir, "parent");
+         File modulePom = createPom(dir, "module");
+         File aggregatorPom = createPom(dir, "aggregator");
+
+         MavenProject parent = new MavenProject();
+         parent.setFile(parentPom);
+         MavenProject module = new MavenProject();
+         module.setFile(modulePom);
+         module.setParent(parent);
+         DefaultMavenExecutionResult result = new DefaultMavenExecutionResult();
+         result.setTopologicallySortedProjects(Arrays.asList(module));
+
+         PomStamps stamps = new PomStamps();
+         stamps.stamp(aggregatorPom, result);
+         assertFalse(stamps.isModified());
+
+         // The parent is not part of the reactor, but its module depends on it
+         assertTrue(parentPom.setLastModified(parentPom.lastModified() - 10000));
+         assertTrue(stamps.isModified());
+
+         stamps.clear();
+         stamps.stamp(aggregatorPom, result);
+         assertFalse(stamps.isModified());
+
+         assertTrue(modulePom.delete());
+         assertTrue(stamps.isModified());
+
+         // A failed build without a result still stamps the POM it was given
+         stamps.clear();
+         stamps.stamp(aggregatorPom, null);
+         assertTrue(aggregatorPom.setLastModified(aggregatorPom.lastModified() - 10000));
+         assertTrue(stamps.isModified());
+      }
+      finally
+      {
+         for (File file : dir.listFiles())
+         {
+            file.delete();
+         }
+         dir.delete();
+      }
+   }
+
+   private static File createPom(File dir, String name) throws IOException
+   {
+      File pom = new File(dir, name + ".xml");
+      assertTrue(pom.createNewFile());
+      return pom;
+   }
+}
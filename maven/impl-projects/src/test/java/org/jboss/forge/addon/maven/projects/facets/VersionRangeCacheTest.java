@@ -0,0 +1,213 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.projects.facets;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.forge.addon.dependencies.Coordinate;
+import org.jboss.forge.addon.dependencies.Dependency;
+import org.jboss.forge.addon.dependencies.DependencyMetadata;
+import org.jboss.forge.addon.dependencies.DependencyNode;
+import org.jboss.forge.addon.dependencies.DependencyQuery;
+import org.jboss.forge.addon.dependencies.DependencyResolver;
+import org.jboss.forge.addon.dependencies.builder.CoordinateBuilder;
+import org.jboss.forge.addon.dependencies.builder.DependencyQueryBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VersionRangeCacheTest
+{
+   private static final DependencyQuery QUERY = DependencyQueryBuilder.create("org.example:example");
+
+   private File cacheDir;
+   private File localRepository;
+   private CountingResolver resolver;
+
+   @Before
+   public void setUp() throws IOException
+   {
+      cacheDir = createTempDir("versions");
+      localRepository = createTempDir("repository");
+      resolver = new CountingResolver();
+   }
+
+   @After
+   public void tearDown()
+   {
+      System.clearProperty(VersionRangeCache.TTL_PROPERTY);
+      delete(cacheDir);
+      delete(localRepository);
+   }
+
+   @Test
+   public void testHitDoesNotResolveAgain() throws Exception
+   {
+      VersionRangeCache cache = new VersionRangeCache(cacheDir);
+      Assert.assertEquals(Arrays.asList("1.0"), cache.getVersions(QUERY, resolver, false, null));
+      Assert.assertEquals(Arrays.asList("1.0"), cache.getVersions(QUERY, resolver, false, null));
+      Assert.assertEquals(1, resolver.calls.get());
+
+      // Entries survive restarts
+      Assert.assertEquals(Arrays.asList("1.0"), new VersionRangeCache(cacheDir).getVersions(QUERY, resolver, false,
+               null));
+      Assert.assertEquals(1, resolver.calls.get());
+   }
+
+   @Test
+   public void testStaleEntryIsRefreshedInBackground() throws Exception
+   {
+      System.setProperty(VersionRangeCache.TTL_PROPERTY, "1");
+      VersionRangeCache cache = new VersionRangeCache(cacheDir);
+      Assert.assertEquals(Arrays.asList("1.0"), cache.getVersions(QUERY, resolver, false, null));
+
+      resolver.versions = Arrays.asList("1.0", "2.0");
+      Thread.sleep(1100);
+      // The stale entry is returned right away while it is refreshed
+      Assert.assertEquals(Arrays.asList("1.0"), cache.getVersions(QUERY, resolver, false, null));
+
+      long timeout = System.currentTimeMillis() + 5000;
+      while (!Arrays.asList("1.0", "2.0").equals(cache.getVersions(QUERY, resolver, false, null))
+               && System.currentTimeMillis() < timeout)
+      {
+         Thread.sleep(10);
+      }
+      Assert.assertEquals(Arrays.asList("1.0", "2.0"), cache.getVersions(QUERY, resolver, false, null));
+      Assert.assertEquals(2, resolver.calls.get());
+   }
+
+   @Test
+   public void testOfflineMissUsesLocalRepository() throws Exception
+   {
+      install("org/example/example/1.0/example-1.0.pom");
+      install("org/example/example/2.0/example-2.0.pom");
+      install("org/example/example/1.5/example-1.5.jar.lastUpdated");
+
+      VersionRangeCache cache = new VersionRangeCache(cacheDir);
+      Assert.assertEquals(Arrays.asList("1.0", "2.0"), cache.getVersions(QUERY, resolver, true, localRepository));
+      Assert.assertEquals(Arrays.asList("2.0"), cache.getVersions(
+               DependencyQueryBuilder.create("org.example:example:[1.5,)"), resolver, true, localRepository));
+      Assert.assertEquals(0, resolver.calls.get());
+
+      // Once cached, the resolved versions are used offline
+      cache.getVersions(QUERY, resolver, false, null);
+      Assert.assertEquals(Arrays.asList("1.0"), cache.getVersions(QUERY, resolver, true, localRepository));
+      Assert.assertEquals(1, resolver.calls.get());
+   }
+
+   @Test
+   public void testZeroTtlDisablesCacheOnline() throws Exception
+   {
+      System.setProperty(VersionRangeCache.TTL_PROPERTY, "0");
+      VersionRangeCache cache = new VersionRangeCache(cacheDir);
+      cache.getVersions(QUERY, resolver, false, null);
+      resolver.versions = Arrays.asList("1.0", "2.0");
+      Assert.assertEquals(Arrays.asList("1.0", "2.0"), cache.getVersions(QUERY, resolver, false, null));
+      Assert.assertEquals(2, resolver.calls.get());
+   }
+
+   @Test
+   public void testCorruptEntryIsResolvedAgain() throws Exception
+   {
+      new VersionRangeCache(cacheDir).getVersions(QUERY, resolver, false, null);
+      File[] files = cacheDir.listFiles();
+      Assert.assertEquals(1, files.length);
+      Writer writer = new FileWriter(files[0]);
+      try
+      {
+         writer.write("org.example:example:\nnot a timestamp\n");
+      }
+      finally
+      {
+         writer.close();
+      }
+
+      resolver.versions = Arrays.asList("2.0");
+      Assert.assertEquals(Arrays.asList("2.0"), new VersionRangeCache(cacheDir).getVersions(QUERY, resolver, false,
+               null));
+      Assert.assertEquals(2, resolver.calls.get());
+   }
+
+   private void install(String path) throws IOException
+   {
+      File file = new File(localRepository, path);
+      file.getParentFile().mkdirs();
+      Assert.assertTrue(file.createNewFile());
+   }
+
+   private static File createTempDir(String prefix) throws IOException
+   {
+      File dir = File.createTempFile(prefix, "");
+      dir.delete();
+      Assert.assertTrue(dir.mkdirs());
+      return dir;
+   }
+
+   private static void delete(File file)
+   {
+      File[] children = file.listFiles();
+      if (children != null)
+      {
+         for (File child : children)
+         {
+            delete(child);
+         }
+      }
+      file.delete();
+   }
+
+   private static class CountingResolver implements DependencyResolver
+   {
+      private final AtomicInteger calls = new AtomicInteger();
+      private volatile List<String> versions = Arrays.asList("1.0");
+
+      @Override
+      public List<Coordinate> resolveVersions(DependencyQuery query)
+      {
+         calls.incrementAndGet();
+         List<Coordinate> result = new ArrayList<Coordinate>();
+         for (String version : versions)
+         {
+            result.add(CoordinateBuilder.create(query.getCoordinate()).setVersion(version));
+         }
+         return result;
+      }
+
+      @Override
+      public Dependency resolveArtifact(DependencyQuery query)
+      {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Set<Dependency> resolveDependencies(DependencyQuery query)
+      {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public DependencyNode resolveDependencyHierarchy(DependencyQuery query)
+      {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public DependencyMetadata resolveDependencyMetadata(DependencyQuery query)
+      {
+         throw new UnsupportedOperationException();
+      }
+   }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.maven.addon.projects.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jboss.forge.addon.maven.projects.util.PropertyInterpolator;
+import org.junit.Test;
+
+/**
+ * Test case for {@link PropertyInterpolator} class
+ */
+public class PropertyInterpolatorTest
+{
+   @Test
+   public void testInterpolateKnownProperties()
+   {
+      Map<String, String> properties = new HashMap<String, String>();
+      properties.put("version.forge", "2.0.0");
+      properties.put("group", "org.jboss.forge");
+      PropertyInterpolator interpolator = new PropertyInterpolator(properties);
+      assertEquals("org.jboss.forge:forge-2.0.0.jar",
+               interpolator.interpolate("${group}:forge-${version.forge}.jar"));
+   }
+
+   @Test
+   public void testUnknownAndUnterminatedExpressionsAreKept()
+   {
+      PropertyInterpolator interpolator = new PropertyInterpolator(new HashMap<String, String>());
+      assertEquals("${unknown}-${broken", interpolator.interpolate("${unknown}-${broken"));
+      assertEquals("plain", interpolator.interpolate("plain"));
+      assertNull(interpolator.interpolate(null));
+   }
+
+   @Test
+   public void testRecursiveResolution()
+   {
+      Map<String, String> properties = new HashMap<String, String>();
+      properties.put("a", "${b}-a");
+      properties.put("b", "${c}-b");
+      properties.put("c", "c");
+      PropertyInterpolator interpolator = new PropertyInterpolator(properties);
+      assertEquals("c-b-a", interpolator.interpolate("${a}"));
+   }
+
+   @Test
+   public void testValuesAreNotTreatedAsRegexReplacements()
+   {
+      Map<String, String> properties = new HashMap<String, String>();
+      properties.put("price", "$1\\0");
+      PropertyInterpolator interpolator = new PropertyInterpolator(properties);
+      assertEquals("costs $1\\0", interpolator.interpolate("costs ${price}"));
+   }
+
+   @Test
+   public void testCyclesAreDetected()
+   {
+      Map<String, String> properties = new HashMap<String, String>();
+      properties.put("a", "${b}");
+      properties.put("b", "${a}");
+      properties.put("self", "x${self}");
+      PropertyInterpolator interpolator = new PropertyInterpolator(properties);
+      assertEquals("x${self}", interpolator.interpolate("${self}"));
+      assertEquals("${a}", interpolator.interpolate("${a}"));
+   }
+
+   @Test
+   public void testValuesOfCutCyclesAreNotMemoized()
+   {
+      Map<String, String> properties = new HashMap<String, String>();
+      properties.put("a", "${b}");
+      properties.put("b", "${a}");
+      properties.put("c", "${d}");
+      properties.put("d", "d");
+      PropertyInterpolator interpolator = new PropertyInterpolator(properties);
+      assertEquals("${a}", interpolator.interpolate("${a}"));
+      assertEquals(new PropertyInterpolator(properties).interpolate("${b}"), interpolator.interpolate("${b}"));
+      assertEquals("${b}", interpolator.interpolate("${b}"));
+      assertEquals("d ${a}", interpolator.interpolate("${c} ${a}"));
+   }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.dependencies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Singleton;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.collection.DependencyCollectionContext;
+import org.eclipse.aether.collection.DependencyManagement;
+import org.eclipse.aether.collection.DependencyManager;
+import org.eclipse.aether.collection.DependencySelector;
+import org.eclipse.aether.collection.DependencyTraverser;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactDescriptorRequest;
+import org.eclipse.aether.resolution.ArtifactDescriptorResult;
+import org.jboss.forge.furnace.container.cdi.events.Local;
+import org.jboss.forge.furnace.event.PreShutdown;
+
+/**
+ * Reads the artifact descriptors of a dependency graph level by level, reading all descriptors of a level concurrently
+ * on a bounded pool, before Aether collects the same graph serially. Aether then finds every POM it needs in the local
+ * repository instead of downloading them one at a time.
+ *
+ * The graph is walked with the {@link DependencySelector}, {@link DependencyTraverser} and {@link DependencyManager} of
+ * the given session, derived for each node the way the collection derives them, so exclusions, scopes, optional
+ * dependencies and managed versions select the same descriptors. Like the collection, every version met is read before
+ * conflicts are mediated; version ranges are left to the collection.
+ *
+ * The pool size is given by the system property {@value #THREADS_PROPERTY} (defaults to the number of available
+ * processors); a value of <code>0</code> disables prefetching.
+ */
+@Singleton
+class DescriptorPrefetcher
+{
+   static final String THREADS_PROPERTY = "forge.maven.resolver.threads";
+
+   private static final Logger log = Logger.getLogger(DescriptorPrefetcher.class.getName());
+
+   private final int threads;
+   private ExecutorService executor;
+
+   public DescriptorPrefetcher()
+   {
+      this(Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+   }
+
+   /**
+    * Create a prefetcher reading descriptors on the given number of threads; <code>0</code> disables prefetching.
+    */
+   DescriptorPrefetcher(int threads)
+   {
+      this.threads = threads;
+   }
+
+   /**
+    * Read the descriptors of the given root dependency and of the transitive dependencies the collection of the same
+    * root with the same session will visit.
+    */
+   public void prefetch(final RepositorySystem system, final RepositorySystemSession session, Dependency root,
+            final List<RemoteRepository> repositories)
+   {
+      ExecutorService executor = getExecutor();
+      if (executor == null)
+         return;
+
+      Set<List<Object>> seen = new HashSet<List<Object>>();
+      List<Node> level = Collections.singletonList(new Node(null, root, session.getDependencySelector(),
+               session.getDependencyTraverser(), session.getDependencyManager(), true));
+      try
+      {
+         while (!level.isEmpty())
+         {
+            List<Callable<ArtifactDescriptorResult>> tasks = new ArrayList<Callable<ArtifactDescriptorResult>>();
+            for (final Node node : level)
+            {
+               tasks.add(new Callable<ArtifactDescriptorResult>()
+               {
+                  @Override
+                  public ArtifactDescriptorResult call() throws Exception
+                  {
+                     return system.readArtifactDescriptor(session, new ArtifactDescriptorRequest(
+                              node.dependency.getArtifact(), repositories, null));
+                  }
+               });
+            }
+
+            List<Node> next = new ArrayList<Node>();
+            List<Future<ArtifactDescriptorResult>> futures = executor.invokeAll(tasks);
+            for (int i = 0; i < futures.size(); i++)
+            {
+               Node node = level.get(i);
+               try
+               {
+                  ArtifactDescriptorResult result = futures.get(i).get();
+                  if (node.traverse)
+                  {
+                     addChildren(session, node, result, seen, next);
+                  }
+               }
+               catch (ExecutionException e)
+               {
+                  // Reported by the collection that follows
+                  log.log(Level.FINE, "Could not prefetch artifact descriptor", e.getCause());
+               }
+            }
+            level = next;
+         }
+      }
+      catch (InterruptedException e)
+      {
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   public synchronized void preShutdown(@Observes @Local PreShutdown event)
+   {
+      if (executor != null)
+      {
+         executor.shutdownNow();
+         executor = null;
+      }
+   }
+
+   private void addChildren(RepositorySystemSession session, Node node, ArtifactDescriptorResult result,
+            Set<List<Object>> seen, List<Node> next)
+   {
+      DependencyCollectionContext context = new PrefetchContext(session, node.parent == null ? null
+               : result.getArtifact(), node.dependency, result.getManagedDependencies());
+      DependencySelector selector = node.selector == null ? null : node.selector.deriveChildSelector(context);
+      DependencyTraverser traverser = node.traverser == null ? null : node.traverser.deriveChildTraverser(context);
+      DependencyManager manager = node.manager == null ? null : node.manager.deriveChildManager(context);
+
+      for (Dependency dependency : result.getDependencies())
+      {
+         if (selector != null && !selector.selectDependency(dependency))
+            continue;
+
+         dependency = manage(dependency, manager);
+         String version = dependency.getArtifact().getVersion();
+         if (version.startsWith("[") || version.startsWith("(") || node.isCycle(dependency.getArtifact()))
+            continue;
+
+         boolean traverse = traverser == null || traverser.traverseDependency(dependency);
+         if (seen.add(Arrays.<Object> asList(dependency.getArtifact().toString(), dependency.getExclusions(),
+                  selector, traverser, manager, traverse)))
+         {
+            next.add(new Node(node, dependency, selector, traverser, manager, traverse));
+         }
+      }
+   }
+
+   private Dependency manage(Dependency dependency, DependencyManager manager)
+   {
+      DependencyManagement management = manager == null ? null : manager.manageDependency(dependency);
+      if (management != null)
+      {
+         if (management.getVersion() != null)
+            dependency = dependency.setArtifact(dependency.getArtifact().setVersion(management.getVersion()));
+         if (management.getScope() != null)
+            dependency = dependency.setScope(management.getScope());
+         if (management.getOptional() != null)
+            dependency = dependency.setOptional(management.getOptional());
+         if (management.getExclusions() != null)
+            dependency = dependency.setExclusions(management.getExclusions());
+      }
+      return dependency;
+   }
+
+   private synchronized ExecutorService getExecutor()
+   {
+      if (threads <= 0)
+         return null;
+
+      if (executor == null)
+      {
+         executor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+         {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r)
+            {
+               Thread thread = new Thread(r, "Forge Descriptor Prefetch " + count.incrementAndGet());
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+      return executor;
+   }
+
+   /**
+    * A dependency to read, with the rules its parent was collected with.
+    */
+   private static class Node
+   {
+      private final Node parent;
+      private final Dependency dependency;
+      private final DependencySelector selector;
+      private final DependencyTraverser traverser;
+      private final DependencyManager manager;
+      private final boolean traverse;
+
+      public Node(Node parent, Dependency dependency, DependencySelector selector, DependencyTraverser traverser,
+               DependencyManager manager, boolean traverse)
+      {
+         this.parent = parent;
+         this.dependency = dependency;
+         this.selector = selector;
+         this.traverser = traverser;
+         this.manager = manager;
+         this.traverse = traverse;
+      }
+
+      /**
+       * Whether the given artifact is already on the path to this node, which the collection does not follow.
+       */
+      public boolean isCycle(Artifact artifact)
+      {
+         for (Node node = this; node != null; node = node.parent)
+         {
+            Artifact other = node.dependency.getArtifact();
+            if (other.getGroupId().equals(artifact.getGroupId())
+                     && other.getArtifactId().equals(artifact.getArtifactId())
+                     && other.getVersion().equals(artifact.getVersion()))
+               return true;
+         }
+         return false;
+      }
+   }
+
+   private static class PrefetchContext implements DependencyCollectionContext
+   {
+      private final RepositorySystemSession session;
+      private final Artifact artifact;
+      private final Dependency dependency;
+      private final List<Dependency> managedDependencies;
+
+      public PrefetchContext(RepositorySystemSession session, Artifact artifact, Dependency dependency,
+               List<Dependency> managedDependencies)
+      {
+         this.session = session;
+         this.artifact = artifact;
+         this.dependency = dependency;
+         this.managedDependencies = managedDependencies;
+      }
+
+      @Override
+      public RepositorySystemSession getSession()
+      {
+         return session;
+      }
+
+      @Override
+      public Artifact getArtifact()
+      {
+         return artifact;
+      }
+
+      @Override
+      public Dependency getDependency()
+      {
+         return dependency;
+      }
+
+      @Override
+      public List<Dependency> getManagedDependencies()
+      {
+         return managedDependencies;
+      }
+   }
+}
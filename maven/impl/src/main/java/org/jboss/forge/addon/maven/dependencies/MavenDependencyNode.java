@@ -0,0 +1,134 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.dependencies;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.forge.addon.dependencies.Dependency;
+import org.jboss.forge.addon.dependencies.DependencyNode;
+import org.jboss.forge.addon.dependencies.collection.DependencyNodeUtil;
+import org.jboss.forge.addon.maven.util.MavenConvertUtils;
+import org.jboss.forge.addon.resource.ResourceFactory;
+
+/**
+ * A read-only {@link DependencyNode} view over an Aether dependency graph. Dependencies and children are only converted
+ * when first requested, and every node of the same tree converts a given Aether dependency once, so subtrees shared by
+ * the graph are never copied.
+ */
+class MavenDependencyNode implements DependencyNode
+{
+   private final DependencyNode parent;
+   private final org.eclipse.aether.graph.DependencyNode node;
+   private final Conversions conversions;
+   private Dependency dependency;
+   private List<DependencyNode> children;
+
+   /**
+    * Create the root of a new view over the given Aether {@link org.eclipse.aether.graph.DependencyNode}.
+    */
+   public MavenDependencyNode(ResourceFactory factory, org.eclipse.aether.graph.DependencyNode root)
+   {
+      this(null, root, new Conversions(factory));
+   }
+
+   private MavenDependencyNode(DependencyNode parent, org.eclipse.aether.graph.DependencyNode node,
+            Conversions conversions)
+   {
+      this.parent = parent;
+      this.node = node;
+      this.conversions = conversions;
+   }
+
+   @Override
+   public DependencyNode getParent()
+   {
+      return parent;
+   }
+
+   @Override
+   public synchronized Dependency getDependency()
+   {
+      if (dependency == null)
+      {
+         dependency = conversions.convert(node);
+      }
+      return dependency;
+   }
+
+   @Override
+   public synchronized List<DependencyNode> getChildren()
+   {
+      if (children == null)
+      {
+         List<DependencyNode> result = new ArrayList<DependencyNode>(node.getChildren().size());
+         for (org.eclipse.aether.graph.DependencyNode child : node.getChildren())
+         {
+            result.add(new MavenDependencyNode(this, child, conversions));
+         }
+         children = Collections.unmodifiableList(result);
+      }
+      return children;
+   }
+
+   @Override
+   public String toString()
+   {
+      return DependencyNodeUtil.prettyPrint(this).toString();
+   }
+
+   @Override
+   public int hashCode()
+   {
+      Dependency dependency = getDependency();
+      return 31 + ((dependency == null) ? 0 : dependency.hashCode());
+   }
+
+   @Override
+   public boolean equals(Object obj)
+   {
+      if (this == obj)
+         return true;
+      if (obj == null)
+         return false;
+      if (getClass() != obj.getClass())
+         return false;
+      Dependency dependency = getDependency();
+      Dependency other = ((MavenDependencyNode) obj).getDependency();
+      return dependency == null ? other == null : dependency.equals(other);
+   }
+
+   /**
+    * Converts each Aether dependency of a tree at most once.
+    */
+   private static class Conversions
+   {
+      private final ResourceFactory factory;
+      private final Map<org.eclipse.aether.graph.Dependency, Dependency> converted;
+
+      public Conversions(ResourceFactory factory)
+      {
+         this.factory = factory;
+         this.converted = new IdentityHashMap<org.eclipse.aether.graph.Dependency, Dependency>();
+      }
+
+      public synchronized Dependency convert(org.eclipse.aether.graph.DependencyNode node)
+      {
+         org.eclipse.aether.graph.Dependency key = node.getDependency();
+         Dependency result = converted.get(key);
+         if (result == null)
+         {
+            result = MavenConvertUtils.convertToDependency(factory, node);
+            converted.put(key, result);
+         }
+         return result;
+      }
+   }
+}
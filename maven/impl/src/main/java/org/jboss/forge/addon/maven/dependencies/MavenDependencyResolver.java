@@ -14,7 +14,6 @@ import java.util.Set;
 
 import javax.inject.Inject;
 
-import org.apache.maven.settings.Settings;
 import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.artifact.Artifact;
@@ -43,13 +42,11 @@ import org.jboss.forge.addon.dependencies.DependencyQuery;
 import org.jboss.forge.addon.dependencies.DependencyResolver;
 import org.jboss.forge.addon.dependencies.builder.CoordinateBuilder;
 import org.jboss.forge.addon.dependencies.builder.DependencyBuilder;
-import org.jboss.forge.addon.dependencies.builder.DependencyNodeBuilder;
 import org.jboss.forge.addon.maven.util.MavenConvertUtils;
 import org.jboss.forge.addon.resource.FileResource;
 import org.jboss.forge.addon.resource.ResourceFactory;
 import org.jboss.forge.furnace.manager.maven.MavenContainer;
 import org.jboss.forge.furnace.manager.maven.MavenOperationException;
-import org.jboss.forge.furnace.manager.maven.util.MavenRepositories;
 import org.jboss.forge.furnace.util.Predicate;
 import org.jboss.forge.furnace.util.Strings;
 
@@ -57,13 +54,27 @@ public class MavenDependencyResolver implements DependencyResolver
 {
    private final MavenContainer container;
    private final ResourceFactory factory;
+   private final RepositorySessionCache sessions;
+   private final DescriptorPrefetcher prefetcher;
 
-   @Inject
+   /**
+    * Create a resolver outside of the container; descriptors are not prefetched, since nothing would shut the
+    * prefetching pool down.
+    */
    public MavenDependencyResolver(ResourceFactory factory, MavenContainer container)
+   {
+      this(factory, container, new RepositorySessionCache(), new DescriptorPrefetcher(0));
+   }
+
+   @Inject
+   MavenDependencyResolver(ResourceFactory factory, MavenContainer container, RepositorySessionCache sessions,
+            DescriptorPrefetcher prefetcher)
    {
       super();
       this.container = container;
       this.factory = factory;
+      this.sessions = sessions;
+      this.prefetcher = prefetcher;
    }
 
    @Override
@@ -72,15 +83,12 @@ public class MavenDependencyResolver implements DependencyResolver
       Set<Dependency> result = new HashSet<Dependency>();
       Predicate<Dependency> filter = query.getDependencyFilter();
       RepositorySystem system = container.getRepositorySystem();
-      Settings settings = container.getSettings();
-
-      DefaultRepositorySystemSession session = container.setupRepoSession(system, settings);
+      DefaultRepositorySystemSession session = sessions.getSession(container, system);
 
       Artifact queryArtifact = MavenConvertUtils.coordinateToMavenArtifact(query.getCoordinate());
 
-      List<RemoteRepository> remoteRepos = MavenConvertUtils.convertToMavenRepos(query.getDependencyRepositories(),
-               settings);
-      remoteRepos.addAll(MavenRepositories.getRemoteRepositories(container, settings));
+      List<RemoteRepository> remoteRepos = sessions.getRemoteRepositories(container,
+               query.getDependencyRepositories());
 
       CollectRequest collectRequest = new CollectRequest(new org.eclipse.aether.graph.Dependency(queryArtifact,
                query.getScopeType()), remoteRepos);
@@ -154,13 +162,10 @@ public class MavenDependencyResolver implements DependencyResolver
          }
 
          RepositorySystem maven = container.getRepositorySystem();
-         Settings settings = container.getSettings();
-
-         DefaultRepositorySystemSession session = container.setupRepoSession(maven, settings);
+         DefaultRepositorySystemSession session = sessions.getSession(container, maven);
          Artifact artifact = MavenConvertUtils.coordinateToMavenArtifact(dep);
-         List<RemoteRepository> remoteRepos = MavenConvertUtils.convertToMavenRepos(query.getDependencyRepositories(),
-                  settings);
-         remoteRepos.addAll(MavenRepositories.getRemoteRepositories(container, settings));
+         List<RemoteRepository> remoteRepos = sessions.getRemoteRepositories(container,
+                  query.getDependencyRepositories());
 
          VersionRangeRequest rangeRequest = new VersionRangeRequest(artifact, remoteRepos, null);
 
@@ -177,13 +182,10 @@ public class MavenDependencyResolver implements DependencyResolver
    public Dependency resolveArtifact(DependencyQuery query)
    {
       RepositorySystem system = container.getRepositorySystem();
-      Settings settings = container.getSettings();
+      List<RemoteRepository> remoteRepos = sessions.getRemoteRepositories(container,
+               query.getDependencyRepositories());
 
-      List<RemoteRepository> remoteRepos = MavenConvertUtils.convertToMavenRepos(query.getDependencyRepositories(),
-               settings);
-      remoteRepos.addAll(MavenRepositories.getRemoteRepositories(container, settings));
-
-      DefaultRepositorySystemSession session = container.setupRepoSession(system, settings);
+      DefaultRepositorySystemSession session = sessions.getSession(container, system);
       Artifact queryArtifact = MavenConvertUtils.coordinateToMavenArtifact(query.getCoordinate());
       ArtifactRequest request = new ArtifactRequest(queryArtifact, remoteRepos, null);
       try
@@ -214,8 +216,7 @@ public class MavenDependencyResolver implements DependencyResolver
       try
       {
          RepositorySystem system = container.getRepositorySystem();
-         Settings settings = container.getSettings();
-         DefaultRepositorySystemSession session = container.setupRepoSession(system, settings);
+         DefaultRepositorySystemSession session = sessions.getSession(container, system);
          session.setDependencyTraverser(new DependencyTraverser()
          {
             @Override
@@ -238,17 +239,16 @@ public class MavenDependencyResolver implements DependencyResolver
          final CoordinateBuilder coord = CoordinateBuilder.create(query.getCoordinate());
          Artifact queryArtifact = MavenConvertUtils.coordinateToMavenArtifact(coord);
 
-         List<RemoteRepository> remoteRepos = MavenConvertUtils.convertToMavenRepos(query.getDependencyRepositories(),
-                  settings);
-         remoteRepos.addAll(MavenRepositories.getRemoteRepositories(container, settings));
-         CollectRequest collectRequest = new CollectRequest(new org.eclipse.aether.graph.Dependency(queryArtifact,
-                  null), remoteRepos);
+         List<RemoteRepository> remoteRepos = sessions.getRemoteRepositories(container,
+                  query.getDependencyRepositories());
+         org.eclipse.aether.graph.Dependency root = new org.eclipse.aether.graph.Dependency(queryArtifact, null);
+         CollectRequest collectRequest = new CollectRequest(root, remoteRepos);
 
          DependencyRequest dr = new DependencyRequest(collectRequest, null);
 
+         prefetcher.prefetch(system, session, root, remoteRepos);
          DependencyResult result = system.resolveDependencies(session, dr);
-         DependencyNodeBuilder hierarchy = MavenConvertUtils.toDependencyNode(factory, null, result.getRoot());
-         return hierarchy;
+         return new MavenDependencyNode(factory, result.getRoot());
       }
       catch (Exception e)
       {
@@ -267,14 +267,11 @@ public class MavenDependencyResolver implements DependencyResolver
          }
 
          RepositorySystem system = container.getRepositorySystem();
-         Settings settings = container.getSettings();
-
-         DefaultRepositorySystemSession session = container.setupRepoSession(system, settings);
+         DefaultRepositorySystemSession session = sessions.getSession(container, system);
          Artifact artifact = MavenConvertUtils.coordinateToMavenArtifact(query.getCoordinate());
 
-         List<RemoteRepository> remoteRepos = MavenConvertUtils.convertToMavenRepos(query.getDependencyRepositories(),
-                  settings);
-         remoteRepos.addAll(MavenRepositories.getRemoteRepositories(container, settings));
+         List<RemoteRepository> remoteRepos = sessions.getRemoteRepositories(container,
+                  query.getDependencyRepositories());
          ArtifactDescriptorRequest ar = new ArtifactDescriptorRequest(artifact, remoteRepos, null);
          ArtifactDescriptorResult results = system.readArtifactDescriptor(session, ar);
 
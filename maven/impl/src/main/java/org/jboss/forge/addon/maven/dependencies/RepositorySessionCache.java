@@ -0,0 +1,161 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.dependencies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Singleton;
+
+import org.apache.maven.settings.Settings;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.DefaultSessionData;
+import org.eclipse.aether.RepositoryCache;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.jboss.forge.addon.dependencies.DependencyRepository;
+import org.jboss.forge.addon.maven.util.MavenConvertUtils;
+import org.jboss.forge.addon.maven.util.MavenSettingsFiles;
+import org.jboss.forge.furnace.manager.maven.MavenContainer;
+import org.jboss.forge.furnace.manager.maven.util.MavenRepositories;
+
+/**
+ * Keeps the {@link Settings}, a template {@link RepositorySystemSession} and the remote repository lists used by
+ * {@link MavenDependencyResolver} between resolutions, so that Aether's artifact descriptor and version range caches
+ * survive from one query to the next. Everything is discarded as soon as one of the settings files changes.
+ *
+ * The number of entries kept in the shared {@link RepositoryCache} is bounded by the system property
+ * {@value #CACHE_SIZE_PROPERTY} (default {@value #DEFAULT_CACHE_SIZE}).
+ */
+@Singleton
+class RepositorySessionCache
+{
+   static final String CACHE_SIZE_PROPERTY = "forge.maven.resolver.cache.size";
+   static final int DEFAULT_CACHE_SIZE = 4096;
+
+   private static final int MAX_REPOSITORY_LISTS = 64;
+
+   private Settings settings;
+   private long[] settingsStamps;
+   private DefaultRepositorySystemSession template;
+   private final Map<List<String>, List<RemoteRepository>> repositories = new LruMap<List<String>, List<RemoteRepository>>(
+            MAX_REPOSITORY_LISTS);
+
+   /**
+    * Return the current {@link Settings}, reading them again only if one of the settings files changed.
+    */
+   public synchronized Settings getSettings(MavenContainer container)
+   {
+      long[] stamps = MavenSettingsFiles.getStamps(MavenSettingsFiles.getSettingsFiles());
+      if (settings == null || !Arrays.equals(stamps, settingsStamps))
+      {
+         settings = container.getSettings();
+         settingsStamps = stamps;
+         template = null;
+         repositories.clear();
+      }
+      return settings;
+   }
+
+   /**
+    * Return a new {@link DefaultRepositorySystemSession} sharing its {@link RepositoryCache}, but not its
+    * {@link SessionData}, with every other session returned for the same {@link Settings}. The returned session may be
+    * freely customized by the caller.
+    */
+   public synchronized DefaultRepositorySystemSession getSession(MavenContainer container, RepositorySystem system)
+   {
+      Settings current = getSettings(container);
+      if (template == null)
+      {
+         template = container.setupRepoSession(system, current);
+         template.setCache(new BoundedRepositoryCache(Integer.getInteger(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE)));
+      }
+      DefaultRepositorySystemSession session = new DefaultRepositorySystemSession(template);
+      // Session data is private to each resolution; only the cache is shared
+      session.setData(new DefaultSessionData());
+      return session;
+   }
+
+   /**
+    * Return the {@link RemoteRepository} instances for the given query repositories followed by the repositories
+    * configured in the current {@link Settings}. The returned list may be freely modified by the caller.
+    */
+   public synchronized List<RemoteRepository> getRemoteRepositories(MavenContainer container,
+            List<DependencyRepository> queryRepositories)
+   {
+      Settings current = getSettings(container);
+      List<String> key = new ArrayList<String>();
+      if (queryRepositories != null)
+      {
+         for (DependencyRepository repository : queryRepositories)
+         {
+            key.add(repository.getId());
+            key.add(repository.getUrl());
+         }
+      }
+
+      List<RemoteRepository> result = repositories.get(key);
+      if (result == null)
+      {
+         result = MavenConvertUtils.convertToMavenRepos(queryRepositories, current);
+         result.addAll(MavenRepositories.getRemoteRepositories(container, current));
+         result = Collections.unmodifiableList(result);
+         repositories.put(key, result);
+      }
+      return new ArrayList<RemoteRepository>(result);
+   }
+
+   /**
+    * A {@link RepositoryCache} discarding its least recently used entries once it holds more than a fixed number of
+    * them.
+    */
+   private static class BoundedRepositoryCache implements RepositoryCache
+   {
+      private final Map<Object, Object> entries;
+
+      public BoundedRepositoryCache(int maxSize)
+      {
+         this.entries = new LruMap<Object, Object>(maxSize);
+      }
+
+      @Override
+      public synchronized void put(RepositorySystemSession session, Object key, Object data)
+      {
+         entries.put(key, data);
+      }
+
+      @Override
+      public synchronized Object get(RepositorySystemSession session, Object key)
+      {
+         return entries.get(key);
+      }
+   }
+
+   private static class LruMap<K, V> extends LinkedHashMap<K, V>
+   {
+      private static final long serialVersionUID = 1L;
+      private final int maxSize;
+
+      public LruMap(int maxSize)
+      {
+         super(16, 0.75f, true);
+         this.maxSize = maxSize;
+      }
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
+      {
+         return size() > maxSize;
+      }
+   }
+}
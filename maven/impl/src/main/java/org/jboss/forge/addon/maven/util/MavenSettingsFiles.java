@@ -0,0 +1,49 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.jboss.forge.addon.maven.util;
+
+import java.io.File;
+
+import org.jboss.forge.furnace.manager.maven.MavenContainer;
+import org.jboss.forge.furnace.util.OperatingSystemUtils;
+
+/**
+ * Locates the Maven settings files read by {@link MavenContainer#getSettings()}, so that caches depending on them can
+ * tell when they change.
+ */
+public class MavenSettingsFiles
+{
+   /**
+    * Return the user settings file, followed by the global settings file if <code>M2_HOME</code> is set. The files may
+    * not exist.
+    */
+   public static File[] getSettingsFiles()
+   {
+      String altSettings = System.getProperty(MavenContainer.ALT_USER_SETTINGS_XML_LOCATION);
+      File userSettings = altSettings != null ? new File(altSettings) : new File(OperatingSystemUtils.getUserHomeDir(),
+               ".m2/settings.xml");
+      String mavenHome = System.getenv("M2_HOME");
+      if (mavenHome == null)
+         return new File[] { userSettings };
+      return new File[] { userSettings, new File(mavenHome, "conf/settings.xml") };
+   }
+
+   /**
+    * Return the last modification time and length of each of the given files.
+    */
+   public static long[] getStamps(File[] files)
+   {
+      long[] result = new long[files.length * 2];
+      for (int i = 0; i < files.length; i++)
+      {
+         result[i * 2] = files[i].lastModified();
+         result[i * 2 + 1] = files[i].length();
+      }
+      return result;
+   }
+}
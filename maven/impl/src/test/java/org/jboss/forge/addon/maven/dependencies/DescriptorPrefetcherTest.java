@@ -0,0 +1,154 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.dependencies;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.collection.DependencyCollectionContext;
+import org.eclipse.aether.collection.DependencyTraverser;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.Exclusion;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactDescriptorRequest;
+import org.eclipse.aether.resolution.ArtifactDescriptorResult;
+import org.eclipse.aether.util.graph.manager.ClassicDependencyManager;
+import org.eclipse.aether.util.graph.selector.AndDependencySelector;
+import org.eclipse.aether.util.graph.selector.ExclusionDependencySelector;
+import org.eclipse.aether.util.graph.selector.OptionalDependencySelector;
+import org.eclipse.aether.util.graph.selector.ScopeDependencySelector;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs against an in-memory {@link RepositorySystem}, which only reads descriptors.
+ */
+public class DescriptorPrefetcherTest
+{
+   private final Map<String, ArtifactDescriptorResult> descriptors = new HashMap<String, ArtifactDescriptorResult>();
+   private final Set<String> read = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+   private final List<RemoteRepository> repositories = Collections.emptyList();
+
+   private DescriptorPrefetcher prefetcher;
+   private RepositorySystem system;
+   private DefaultRepositorySystemSession session;
+
+   @Before
+   public void setUp()
+   {
+      prefetcher = new DescriptorPrefetcher(2);
+      system = (RepositorySystem) Proxy.newProxyInstance(getClass().getClassLoader(),
+               new Class<?>[] { RepositorySystem.class }, new InvocationHandler()
+               {
+                  @Override
+                  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+                  {
+                     if (!"readArtifactDescriptor".equals(method.getName()))
+                        throw new UnsupportedOperationException(method.getName());
+                     ArtifactDescriptorRequest request = (ArtifactDescriptorRequest) args[1];
+                     String key = request.getArtifact().toString();
+                     read.add(key);
+                     ArtifactDescriptorResult result = new ArtifactDescriptorResult(request);
+                     result.setArtifact(request.getArtifact());
+                     if (descriptors.containsKey(key))
+                     {
+                        result.setDependencies(descriptors.get(key).getDependencies());
+                        result.setManagedDependencies(descriptors.get(key).getManagedDependencies());
+                     }
+                     return result;
+                  }
+               });
+
+      session = new DefaultRepositorySystemSession();
+      session.setDependencySelector(new AndDependencySelector(new ScopeDependencySelector("test"),
+               new OptionalDependencySelector(), new ExclusionDependencySelector()));
+      session.setDependencyManager(new ClassicDependencyManager());
+      session.setDependencyTraverser(new DependencyTraverser()
+      {
+         @Override
+         public boolean traverseDependency(Dependency dependency)
+         {
+            return !"test".equals(dependency.getScope());
+         }
+
+         @Override
+         public DependencyTraverser deriveChildTraverser(DependencyCollectionContext context)
+         {
+            return this;
+         }
+      });
+   }
+
+   @After
+   public void tearDown()
+   {
+      prefetcher.preShutdown(null);
+   }
+
+   @Test
+   public void testReadsWhatTheCollectionVisits() throws Exception
+   {
+      describe("org.example:root:1.0", Arrays.asList(dependency("org.example:a:1.0", "compile", false,
+               new Exclusion("org.example", "excluded", "*", "*")), dependency("org.example:tests:1.0", "test", false)),
+               Arrays.asList(dependency("org.example:managed:2.0", "compile", false)));
+      describe("org.example:a:1.0", Arrays.asList(dependency("org.example:managed:1.0", "compile", false),
+               dependency("org.example:optional:1.0", "compile", true),
+               dependency("org.example:excluded:1.0", "compile", false),
+               dependency("org.example:transitive-tests:1.0", "test", false)),
+               Collections.<Dependency> emptyList());
+      describe("org.example:tests:1.0", Arrays.asList(dependency("org.example:test-only:1.0", "compile", false)),
+               Collections.<Dependency> emptyList());
+      describe("org.example:managed:2.0", Arrays.asList(dependency("org.example:a:1.0", "compile", false),
+               dependency("org.example:ranged:[1.0,2.0)", "compile", false)),
+               Collections.<Dependency> emptyList());
+
+      prefetcher.prefetch(system, session, dependency("org.example:root:1.0", null, false), repositories);
+
+      Assert.assertEquals(
+               set("org.example:root:jar:1.0", "org.example:a:jar:1.0", "org.example:managed:jar:2.0"), read);
+   }
+
+   @Test
+   public void testNoThreadsDisablesPrefetching() throws Exception
+   {
+      new DescriptorPrefetcher(0).prefetch(system, session, dependency("org.example:root:1.0", null, false),
+               repositories);
+      Assert.assertTrue(read.isEmpty());
+   }
+
+   private void describe(String coordinates, List<Dependency> dependencies, List<Dependency> managedDependencies)
+   {
+      ArtifactDescriptorResult result = new ArtifactDescriptorResult(new ArtifactDescriptorRequest());
+      result.setDependencies(dependencies);
+      result.setManagedDependencies(managedDependencies);
+      descriptors.put(new DefaultArtifact(coordinates).toString(), result);
+   }
+
+   private static Dependency dependency(String coordinates, String scope, boolean optional, Exclusion... exclusions)
+   {
+      return new Dependency(new DefaultArtifact(coordinates), scope, optional, Arrays.asList(exclusions));
+   }
+
+   private static Set<String> set(String... values)
+   {
+      return new HashSet<String>(Arrays.asList(values));
+   }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.dependencies;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.graph.DefaultDependencyNode;
+import org.eclipse.aether.graph.Dependency;
+import org.jboss.forge.addon.dependencies.DependencyNode;
+import org.jboss.forge.addon.resource.Resource;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MavenDependencyNodeTest
+{
+   private CountingResourceFactory factory;
+   private DefaultDependencyNode root;
+   private DefaultDependencyNode shared;
+
+   @Before
+   public void setUp()
+   {
+      factory = new CountingResourceFactory();
+      shared = node("org.example:shared:1.0");
+      DefaultDependencyNode a = node("org.example:a:1.0");
+      DefaultDependencyNode b = node("org.example:b:1.0");
+      a.setChildren(Arrays.<org.eclipse.aether.graph.DependencyNode> asList(shared));
+      b.setChildren(Arrays.<org.eclipse.aether.graph.DependencyNode> asList(shared));
+      root = node("org.example:root:1.0");
+      root.setChildren(Arrays.<org.eclipse.aether.graph.DependencyNode> asList(a, b));
+   }
+
+   @Test
+   public void testConvertsLazily() throws Exception
+   {
+      MavenDependencyNode node = new MavenDependencyNode(factory, root);
+      Assert.assertEquals(0, factory.created);
+      Assert.assertEquals("root", node.getDependency().getCoordinate().getArtifactId());
+      Assert.assertEquals(1, factory.created);
+
+      List<DependencyNode> children = node.getChildren();
+      Assert.assertEquals(2, children.size());
+      Assert.assertEquals(1, factory.created);
+      Assert.assertSame(children, node.getChildren());
+   }
+
+   @Test
+   public void testSharedSubtreesAreConvertedOnce() throws Exception
+   {
+      MavenDependencyNode node = new MavenDependencyNode(factory, root);
+      DependencyNode first = node.getChildren().get(0).getChildren().get(0);
+      DependencyNode second = node.getChildren().get(1).getChildren().get(0);
+      Assert.assertSame(first.getDependency(), second.getDependency());
+      Assert.assertEquals(1, factory.created);
+      Assert.assertEquals(first, second);
+      Assert.assertEquals(first.hashCode(), second.hashCode());
+
+      // Each occurrence keeps its own parent
+      Assert.assertSame(node.getChildren().get(0), first.getParent());
+      Assert.assertSame(node.getChildren().get(1), second.getParent());
+      Assert.assertNull(node.getParent());
+      Assert.assertFalse(first.equals(node));
+   }
+
+   private static DefaultDependencyNode node(String coordinates)
+   {
+      return new DefaultDependencyNode(new Dependency(new DefaultArtifact(coordinates), "compile"));
+   }
+
+   private static class CountingResourceFactory extends FileResourceFactory
+   {
+      private int created;
+
+      @Override
+      public <E, T extends Resource<E>> T create(Class<T> type, E underlyingResource)
+      {
+         created++;
+         return super.create(type, underlyingResource);
+      }
+   }
+}
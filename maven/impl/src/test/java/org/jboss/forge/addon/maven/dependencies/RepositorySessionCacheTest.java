@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.maven.dependencies;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.jboss.forge.addon.dependencies.DependencyRepository;
+import org.jboss.forge.furnace.manager.maven.MavenContainer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs against a settings file of its own, so that the user's Maven settings are never read.
+ */
+public class RepositorySessionCacheTest
+{
+   private File settingsFile;
+   private String previousSettings;
+   private MavenContainer container;
+   private RepositorySessionCache sessions;
+
+   @Before
+   public void setUp() throws IOException
+   {
+      settingsFile = File.createTempFile("settings", ".xml");
+      File localRepository = new File(settingsFile.getParentFile(), settingsFile.getName() + ".repository");
+      Writer writer = new FileWriter(settingsFile);
+      try
+      {
+         writer.write("<settings><localRepository>" + localRepository.getAbsolutePath()
+                  + "</localRepository><offline>true</offline></settings>");
+      }
+      finally
+      {
+         writer.close();
+      }
+      previousSettings = System.setProperty(MavenContainer.ALT_USER_SETTINGS_XML_LOCATION,
+               settingsFile.getAbsolutePath());
+      container = new MavenContainer();
+      sessions = new RepositorySessionCache();
+   }
+
+   @After
+   public void tearDown()
+   {
+      if (previousSettings == null)
+         System.clearProperty(MavenContainer.ALT_USER_SETTINGS_XML_LOCATION);
+      else
+         System.setProperty(MavenContainer.ALT_USER_SETTINGS_XML_LOCATION, previousSettings);
+      settingsFile.delete();
+   }
+
+   @Test
+   public void testRemoteRepositoriesAreSharedBetweenQueries() throws Exception
+   {
+      List<DependencyRepository> repositories = Arrays.asList(new DependencyRepository("test",
+               "http://localhost/repository"));
+
+      List<RemoteRepository> first = sessions.getRemoteRepositories(container, repositories);
+      Assert.assertEquals("test", first.get(0).getId());
+      first.clear();
+
+      List<RemoteRepository> second = sessions.getRemoteRepositories(container, repositories);
+      Assert.assertFalse(second.isEmpty());
+      Assert.assertEquals("http://localhost/repository", second.get(0).getUrl());
+   }
+
+   @Test
+   public void testSessionsShareOnlyTheCache() throws Exception
+   {
+      DefaultRepositorySystemSession first = sessions.getSession(container, container.getRepositorySystem());
+      DefaultRepositorySystemSession second = sessions.getSession(container, container.getRepositorySystem());
+      Assert.assertSame(first.getCache(), second.getCache());
+      Assert.assertNotSame(first.getData(), second.getData());
+
+      first.getData().set("key", "value");
+      Assert.assertNull(second.getData().get("key"));
+   }
+
+   @Test
+   public void testSettingsChangeDiscardsTheCache() throws Exception
+   {
+      DefaultRepositorySystemSession first = sessions.getSession(container, container.getRepositorySystem());
+      Writer writer = new FileWriter(settingsFile);
+      try
+      {
+         writer.write("<settings><offline>true</offline></settings>");
+      }
+      finally
+      {
+         writer.close();
+      }
+      DefaultRepositorySystemSession second = sessions.getSession(container, container.getRepositorySystem());
+      Assert.assertNotSame(first.getCache(), second.getCache());
+   }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.jboss.forge.addon.maven.projects;
+
+import javax.inject.Inject;
+
+import org.apache.maven.model.Model;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.forge.addon.dependencies.builder.DependencyBuilder;
+import org.jboss.forge.addon.projects.Project;
+import org.jboss.forge.addon.projects.ProjectFactory;
+import org.jboss.forge.addon.projects.facets.DependencyFacet;
+import org.jboss.forge.arquillian.AddonDependency;
+import org.jboss.forge.arquillian.Dependencies;
+import org.jboss.forge.arquillian.archive.ForgeArchive;
+import org.jboss.forge.furnace.repositories.AddonDependencyEntry;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(Arquillian.class)
+public class MavenFacetBatchTest
+{
+   @Deployment
+   @Dependencies({
+            @AddonDependency(name = "org.jboss.forge.addon:resources"),
+            @AddonDependency(name = "org.jboss.forge.addon:projects"),
+            @AddonDependency(name = "org.jboss.forge.addon:maven")
+   })
+   public static ForgeArchive getDeployment()
+   {
+      ForgeArchive archive = ShrinkWrap
+               .create(ForgeArchive.class)
+               .addBeansXML()
+               .addAsAddonDependencies(
+                        AddonDependencyEntry.create("org.jboss.forge.furnace.container:cdi"),
+                        AddonDependencyEntry.create("org.jboss.forge.addon:maven"),
+                        AddonDependencyEntry.create("org.jboss.forge.addon:projects")
+               );
+
+      return archive;
+   }
+
+   private Project project;
+
+   @Inject
+   private ProjectFactory projectFactory;
+
+   @Before
+   public void setUp()
+   {
+      project = projectFactory.createTempProject();
+   }
+
+   @Test
+   public void testBatchWritesOnCommit() throws Exception
+   {
+      MavenFacet maven = project.getFacet(MavenFacet.class);
+      DependencyFacet deps = project.getFacet(DependencyFacet.class);
+      String before = maven.getPomResource().getContents();
+
+      maven.beginBatch();
+      Assert.assertTrue(maven.isBatchStarted());
+      deps.addDirectDependency(DependencyBuilder.create("org.jboss.forge:forge-a:1.0"));
+      deps.addDirectDependency(DependencyBuilder.create("org.jboss.forge:forge-b:1.0"));
+      Assert.assertTrue(deps.hasDirectDependency(DependencyBuilder.create("org.jboss.forge:forge-b")));
+      Assert.assertEquals(before, maven.getPomResource().getContents());
+
+      maven.commitBatch();
+      Assert.assertFalse(maven.isBatchStarted());
+      Model pom = maven.getPomResource().getCurrentModel();
+      Assert.assertEquals(2, pom.getDependencies().size());
+   }
+
+   @Test
+   public void testRollbackDiscardsChanges() throws Exception
+   {
+      MavenFacet maven = project.getFacet(MavenFacet.class);
+      DependencyFacet deps = project.getFacet(DependencyFacet.class);
+      String before = maven.getPomResource().getContents();
+
+      maven.beginBatch();
+      deps.addDirectDependency(DependencyBuilder.create("org.jboss.forge:forge-a:1.0"));
+      maven.rollbackBatch();
+
+      Assert.assertFalse(maven.isBatchStarted());
+      Assert.assertEquals(before, maven.getPomResource().getContents());
+      Assert.assertFalse(deps.hasDirectDependency(DependencyBuilder.create("org.jboss.forge:forge-a")));
+   }
+
+   @Test
+   public void testNestedRollbackFailsOuterBatch() throws Exception
+   {
+      MavenFacet maven = project.getFacet(MavenFacet.class);
+      DependencyFacet deps = project.getFacet(DependencyFacet.class);
+      String before = maven.getPomResource().getContents();
+
+      maven.beginBatch();
+      deps.addDirectDependency(DependencyBuilder.create("org.jboss.forge:forge-a:1.0"));
+      maven.beginBatch();
+      deps.addDirectDependency(DependencyBuilder.create("org.jboss.forge:forge-b:1.0"));
+      maven.rollbackBatch();
+      Assert.assertTrue(maven.isBatchStarted());
+
+      maven.commitBatch();
+      Assert.assertFalse(maven.isBatchStarted());
+      Assert.assertEquals(before, maven.getPomResource().getContents());
+      Assert.assertFalse(deps.hasDirectDependency(DependencyBuilder.create("org.jboss.forge:forge-a")));
+   }
+
+   @Test
+   public void testEffectiveModelReflectsBatch() throws Exception
+   {
+      MavenFacet maven = project.getFacet(MavenFacet.class);
+      DependencyFacet deps = project.getFacet(DependencyFacet.class);
+      Assert.assertNull(deps.getEffectiveManagedDependency(DependencyBuilder.create("org.jboss.forge:forge-a")));
+
+      maven.beginBatch();
+      deps.addDirectManagedDependency(DependencyBuilder.create("org.jboss.forge:forge-a:1.0"));
+      Assert.assertNotNull(deps.getEffectiveManagedDependency(DependencyBuilder.create("org.jboss.forge:forge-a")));
+      maven.rollbackBatch();
+
+      Assert.assertNull(deps.getEffectiveManagedDependency(DependencyBuilder.create("org.jboss.forge:forge-a")));
+   }
+
+   @Test(expected = IllegalStateException.class)
+   public void testCommitWithoutBatchFails() throws Exception
+   {
+      project.getFacet(MavenFacet.class).commitBatch();
+   }
+}
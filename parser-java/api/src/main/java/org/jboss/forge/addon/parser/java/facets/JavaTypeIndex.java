@@ -0,0 +1,34 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.parser.java.facets;
+
+import java.util.List;
+
+/**
+ * Implemented by {@link JavaSourceFacet} implementations that can answer annotation queries from an index, instead of
+ * parsing every source file. Callers should go through
+ * {@link org.jboss.forge.addon.parser.java.utils.AnnotatedTypes}, which falls back to visiting the sources of facets
+ * that do not implement this interface.
+ */
+public interface JavaTypeIndex
+{
+   /**
+    * Return a summary of every type in {@link JavaSourceFacet#getSourceDirectory()} annotated with the given annotation
+    * type.
+    *
+    * @param annotationType The fully qualified name of the annotation type.
+    */
+   public List<JavaTypeSummary> getTypesAnnotatedWith(String annotationType);
+
+   /**
+    * Return a summary of every type in {@link JavaSourceFacet#getTestSourceDirectory()} annotated with the given
+    * annotation type.
+    *
+    * @param annotationType The fully qualified name of the annotation type.
+    */
+   public List<JavaTypeSummary> getTestTypesAnnotatedWith(String annotationType);
+}
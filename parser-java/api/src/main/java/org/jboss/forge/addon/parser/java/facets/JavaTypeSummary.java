@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.parser.java.facets;
+
+import java.io.FileNotFoundException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.jboss.forge.addon.parser.java.resources.JavaResource;
+import org.jboss.forge.parser.java.Annotation;
+import org.jboss.forge.parser.java.JavaSource;
+import org.jboss.forge.parser.java.util.Types;
+
+/**
+ * An immutable summary of a top-level Java type declared in a {@link JavaResource}: its qualified name and the
+ * annotations present on the type declaration. Summaries are returned by the indexed queries of
+ * {@link JavaTypeIndex}, and avoid parsing the underlying source when only this information is needed.
+ */
+public class JavaTypeSummary
+{
+   private final JavaResource resource;
+   private final String qualifiedName;
+   private final Map<String, String> annotations;
+   private final Map<String, String> names;
+
+   /**
+    * Create a new {@link JavaTypeSummary}.
+    *
+    * @param resource the {@link JavaResource} declaring the type
+    * @param qualifiedName the fully qualified name of the type
+    * @param annotations the qualified names of the annotations on the type, mapped to their literal (unnamed) value,
+    *           or <code>null</code> if they have none
+    * @param names the qualified names of the annotations on the type, mapped to their names as written in the source
+    */
+   public JavaTypeSummary(JavaResource resource, String qualifiedName, Map<String, String> annotations,
+            Map<String, String> names)
+   {
+      this.resource = resource;
+      this.qualifiedName = qualifiedName;
+      this.annotations = Collections.unmodifiableMap(new LinkedHashMap<String, String>(annotations));
+      this.names = new LinkedHashMap<String, String>(names);
+   }
+
+   /**
+    * Parse the given {@link JavaResource} and summarize the type it declares.
+    *
+    * @throws org.jboss.forge.parser.ParserException if the resource cannot be parsed
+    */
+   public static JavaTypeSummary create(JavaResource resource) throws FileNotFoundException
+   {
+      JavaSource<?> source = resource.getJavaSource();
+      Map<String, String> annotations = new LinkedHashMap<String, String>();
+      Map<String, String> names = new LinkedHashMap<String, String>();
+      for (Annotation<?> annotation : source.getAnnotations())
+      {
+         annotations.put(annotation.getQualifiedName(), annotation.isMarker() ? null : annotation.getStringValue());
+         names.put(annotation.getQualifiedName(), annotation.getName());
+      }
+      return new JavaTypeSummary(resource, source.getQualifiedName(), annotations, names);
+   }
+
+   /**
+    * Return the {@link JavaResource} declaring this type.
+    */
+   public JavaResource getResource()
+   {
+      return resource;
+   }
+
+   /**
+    * Return the fully qualified name of this type.
+    */
+   public String getQualifiedName()
+   {
+      return qualifiedName;
+   }
+
+   /**
+    * Return the qualified names of the annotations present on this type.
+    */
+   public Set<String> getAnnotationTypes()
+   {
+      return annotations.keySet();
+   }
+
+   /**
+    * Return <code>true</code> if this type is annotated with the given annotation type. Annotations are matched like
+    * {@link org.jboss.forge.parser.java.AnnotationTarget#hasAnnotation(String)} does, by the name written in the
+    * source, so annotations imported with a wildcard or from the same package are found as well.
+    */
+   public boolean hasAnnotation(String annotationType)
+   {
+      return find(annotationType) != null;
+   }
+
+   /**
+    * Return the literal value of the given annotation on this type, or <code>null</code> if the annotation is not
+    * present or has no value.
+    */
+   public String getAnnotationValue(String annotationType)
+   {
+      String key = find(annotationType);
+      return key == null ? null : annotations.get(key);
+   }
+
+   private String find(String annotationType)
+   {
+      if (annotations.containsKey(annotationType))
+         return annotationType;
+
+      for (Entry<String, String> name : names.entrySet())
+      {
+         if (Types.areEquivalent(name.getValue(), annotationType))
+            return name.getKey();
+      }
+      return null;
+   }
+
+   @Override
+   public String toString()
+   {
+      return qualifiedName;
+   }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.parser.java.utils;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.forge.addon.parser.java.facets.JavaSourceFacet;
+import org.jboss.forge.addon.parser.java.facets.JavaTypeIndex;
+import org.jboss.forge.addon.parser.java.facets.JavaTypeSummary;
+import org.jboss.forge.addon.parser.java.resources.JavaResource;
+import org.jboss.forge.addon.parser.java.resources.JavaResourceVisitor;
+import org.jboss.forge.addon.resource.visit.VisitContext;
+import org.jboss.forge.parser.ParserException;
+
+/**
+ * Finds the types of a project annotated with a given annotation type. Facets implementing {@link JavaTypeIndex} answer
+ * from their index; the sources of any other {@link JavaSourceFacet} are parsed one by one.
+ */
+public final class AnnotatedTypes
+{
+   private AnnotatedTypes()
+   {
+   }
+
+   /**
+    * Return a summary of every type in the source directory of the given facet annotated with the given annotation
+    * type.
+    */
+   public static List<JavaTypeSummary> getTypesAnnotatedWith(JavaSourceFacet facet, String annotationType)
+   {
+      if (facet instanceof JavaTypeIndex)
+         return ((JavaTypeIndex) facet).getTypesAnnotatedWith(annotationType);
+
+      Collector collector = new Collector(annotationType);
+      facet.visitJavaSources(collector);
+      return collector.result;
+   }
+
+   /**
+    * Return a summary of every type in the test source directory of the given facet annotated with the given
+    * annotation type.
+    */
+   public static List<JavaTypeSummary> getTestTypesAnnotatedWith(JavaSourceFacet facet, String annotationType)
+   {
+      if (facet instanceof JavaTypeIndex)
+         return ((JavaTypeIndex) facet).getTestTypesAnnotatedWith(annotationType);
+
+      Collector collector = new Collector(annotationType);
+      facet.visitJavaTestSources(collector);
+      return collector.result;
+   }
+
+   private static class Collector extends JavaResourceVisitor
+   {
+      private final String annotationType;
+      private final List<JavaTypeSummary> result = new ArrayList<JavaTypeSummary>();
+
+      public Collector(String annotationType)
+      {
+         this.annotationType = annotationType;
+      }
+
+      @Override
+      public void visit(VisitContext context, JavaResource javaResource)
+      {
+         try
+         {
+            JavaTypeSummary summary = JavaTypeSummary.create(javaResource);
+            if (summary.hasAnnotation(annotationType))
+               result.add(summary);
+         }
+         catch (FileNotFoundException e)
+         {
+            // Deleted while visiting
+         }
+         catch (ParserException e)
+         {
+            // Not parseable until fixed
+         }
+      }
+   }
+}
@@ -14,6 +14,9 @@ public class JavaResourceGenerator implements ResourceGenerator<JavaResource, Fi
    @Inject
    private JavaSourceFactory parser;
 
+   @Inject
+   private JavaSourceCache cache;
+
    @Override
    public boolean handles(Class<?> type, Object resource)
    {
@@ -28,7 +31,7 @@ public class JavaResourceGenerator implements ResourceGenerator<JavaResource, Fi
    @SuppressWarnings("unchecked")
    public <T extends Resource<File>> T getResource(ResourceFactory factory, Class<JavaResource> type, File resource)
    {
-      return (T) new JavaResourceImpl(factory, parser, resource);
+      return (T) new JavaResourceImpl(factory, parser, cache, resource);
    }
 
    @Override
@@ -9,6 +9,11 @@ package org.jboss.forge.addon.parser.java.resources;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -35,11 +40,18 @@ import org.jboss.forge.parser.java.Method;
 public class JavaResourceImpl extends AbstractFileResource<JavaResource> implements JavaResource
 {
    private final JavaSourceFactory parser;
+   private final JavaSourceCache cache;
 
    public JavaResourceImpl(final ResourceFactory factory, JavaSourceFactory parser, final File file)
+   {
+      this(factory, parser, null, file);
+   }
+
+   JavaResourceImpl(final ResourceFactory factory, JavaSourceFactory parser, JavaSourceCache cache, final File file)
    {
       super(factory, file);
       this.parser = parser;
+      this.cache = cache;
    }
 
    @Override
@@ -82,8 +94,10 @@ public class JavaResourceImpl extends AbstractFileResource<JavaResource> impleme
       try
       {
          List<Resource<?>> list = new LinkedList<Resource<?>>();
+         // Member resources expose and mutate their origin, so they never get the shared instance
+         JavaSource<?> source = getJavaSource();
 
-         for (Member<?, ?> member : getJavaSource().getMembers())
+         for (Member<?, ?> member : source.getMembers())
          {
             if (member instanceof Field)
             {
@@ -99,9 +113,9 @@ public class JavaResourceImpl extends AbstractFileResource<JavaResource> impleme
             }
          }
 
-         if (getJavaSource() instanceof JavaEnum)
+         if (source instanceof JavaEnum)
          {
-            for (EnumConstant<JavaEnum> e : ((JavaEnum) getJavaSource()).getEnumConstants())
+            for (EnumConstant<JavaEnum> e : ((JavaEnum) source).getEnumConstants())
             {
                list.add(new EnumConstantResourceImpl(getResourceFactory(), this, e));
             }
@@ -126,8 +140,68 @@ public class JavaResourceImpl extends AbstractFileResource<JavaResource> impleme
       return this;
    }
 
+   @Override
+   public JavaResource setContents(final InputStream data)
+   {
+      invalidateJavaSource();
+      try
+      {
+         return super.setContents(data);
+      }
+      finally
+      {
+         invalidateJavaSource();
+      }
+   }
+
+   /**
+    * Returns a stream that discards any shared {@link JavaSource} of this resource when opened and when closed.
+    */
+   @Override
+   public OutputStream getResourceOutputStream()
+   {
+      invalidateJavaSource();
+      return new FilterOutputStream(super.getResourceOutputStream())
+      {
+         @Override
+         public void write(byte[] b, int off, int len) throws IOException
+         {
+            out.write(b, off, len);
+         }
+
+         @Override
+         public void close() throws IOException
+         {
+            try
+            {
+               super.close();
+            }
+            finally
+            {
+               invalidateJavaSource();
+            }
+         }
+      };
+   }
+
+   @Override
+   protected JavaResource writeContents(final CharSequence data, final Charset charset)
+   {
+      invalidateJavaSource();
+      try
+      {
+         return super.writeContents(data, charset);
+      }
+      finally
+      {
+         invalidateJavaSource();
+      }
+   }
+
    /**
     * Attempts to perform cast automatically. This can lead to problems.
+    *
+    * The returned instance is parsed on every call, belongs to the caller and may be freely modified.
     */
    @Override
    public JavaSource<?> getJavaSource() throws FileNotFoundException
@@ -135,10 +209,45 @@ public class JavaResourceImpl extends AbstractFileResource<JavaResource> impleme
       return parser.parse(getResourceInputStream());
    }
 
+   /**
+    * Return a parsed {@link JavaSource} that may be shared with other callers, and therefore must not be modified nor
+    * handed to code that could modify it.
+    */
+   JavaSource<?> getSharedJavaSource() throws FileNotFoundException
+   {
+      if (!isCacheable())
+         return parser.parse(getResourceInputStream());
+
+      // Read the stamp before parsing, so a concurrent change is detected on the next lookup
+      long lastModified = file.lastModified();
+      long length = file.length();
+      JavaSource<?> result = cache.get(file, lastModified, length);
+      if (result == null)
+      {
+         result = parser.parse(getResourceInputStream());
+         cache.put(file, lastModified, length, result);
+      }
+      return result;
+   }
+
+   /**
+    * Discard any shared {@link JavaSource} parsed from this resource.
+    */
+   private void invalidateJavaSource()
+   {
+      if (cache != null)
+         cache.evict(file);
+   }
+
+   private boolean isCacheable()
+   {
+      return cache != null && !getResourceFactory().getTransaction().isStarted();
+   }
+
    @Override
    public JavaResourceImpl createFrom(final File file)
    {
-      return new JavaResourceImpl(resourceFactory, parser, file);
+      return new JavaResourceImpl(resourceFactory, parser, cache, file);
    }
 
    @Override
@@ -146,7 +255,7 @@ public class JavaResourceImpl extends AbstractFileResource<JavaResource> impleme
    {
       try
       {
-         return getJavaSource().getQualifiedName();
+         return getSharedJavaSource().getQualifiedName();
       }
       catch (FileNotFoundException e)
       {
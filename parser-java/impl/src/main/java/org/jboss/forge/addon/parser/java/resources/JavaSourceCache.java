@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.parser.java.resources;
+
+import java.io.File;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.inject.Singleton;
+
+import org.jboss.forge.parser.java.JavaSource;
+
+/**
+ * Holds parsed {@link JavaSource} instances, keyed by file path and validated against the last-modified time and size
+ * of the file they were parsed from. The cache is bounded (see the <code>java.source.cache.size</code> system
+ * property) and values are softly referenced, so they may be reclaimed under memory pressure.
+ *
+ * Instances returned by {@link #get(File, long, long)} are shared: they must only be used for reading, and never be
+ * handed to a caller that could modify them.
+ */
+@Singleton
+class JavaSourceCache
+{
+   private static final int MAX_ENTRIES = Integer.getInteger("java.source.cache.size", 512);
+
+   private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true)
+   {
+      private static final long serialVersionUID = -6203483815231826128L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest)
+      {
+         return size() > MAX_ENTRIES;
+      }
+   };
+
+   /**
+    * Return the shared {@link JavaSource} parsed from the given file with the given stamp, or <code>null</code> if
+    * there is none.
+    */
+   synchronized JavaSource<?> get(File file, long lastModified, long length)
+   {
+      String key = file.getAbsolutePath();
+      Entry entry = entries.get(key);
+      if (entry == null)
+         return null;
+
+      JavaSource<?> source = entry.source.get();
+      if (source == null || entry.lastModified != lastModified || entry.length != length)
+      {
+         entries.remove(key);
+         return null;
+      }
+      return source;
+   }
+
+   synchronized void put(File file, long lastModified, long length, JavaSource<?> source)
+   {
+      entries.put(file.getAbsolutePath(), new Entry(lastModified, length, source));
+   }
+
+   synchronized void evict(File file)
+   {
+      entries.remove(file.getAbsolutePath());
+   }
+
+   private static class Entry
+   {
+      private final long lastModified;
+      private final long length;
+      private final SoftReference<JavaSource<?>> source;
+
+      public Entry(long lastModified, long length, JavaSource<?> source)
+      {
+         this.lastModified = lastModified;
+         this.length = length;
+         this.source = new SoftReference<JavaSource<?>>(source);
+      }
+   }
+}
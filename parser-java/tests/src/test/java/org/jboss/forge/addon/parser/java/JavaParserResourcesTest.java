@@ -81,4 +81,43 @@ public class JavaParserResourcesTest
       Assert.assertThat(newResource, is(instanceOf(JavaResource.class)));
       Assert.assertEquals(resource, newResource);
    }
+
+   @Test
+   public void testJavaSourceIsNotSharedAfterRewrite() throws Exception
+   {
+      JavaClass javaClass = JavaParser.create(JavaClass.class).setPackage("org.jboss.forge.test").setName("Example");
+      JavaResource resource = factory.create(JavaResource.class, File.createTempFile("forge", ".java"));
+      resource.createNewFile();
+      resource.setContents(javaClass);
+
+      Assert.assertEquals("org.jboss.forge.test.Example", resource.toString());
+      JavaClass first = (JavaClass) resource.getJavaSource();
+      first.setName("Modified");
+      Assert.assertEquals("Example", resource.getJavaSource().getName());
+      Assert.assertNotSame(first, resource.getJavaSource());
+
+      resource.setContents(javaClass.setName("Other"));
+      Assert.assertEquals("org.jboss.forge.test.Other", resource.toString());
+   }
+
+   @Test
+   public void testMemberResourcesDoNotShareTheCachedSource() throws Exception
+   {
+      JavaClass javaClass = JavaParser.create(JavaClass.class).setPackage("org.jboss.forge.test").setName("Example");
+      javaClass.addField("private int count;");
+      JavaResource resource = factory.create(JavaResource.class, File.createTempFile("forge", ".java"));
+      resource.createNewFile();
+      resource.setContents(javaClass);
+
+      Assert.assertEquals("org.jboss.forge.test.Example", resource.toString());
+      Resource<?> field = resource.getChild("count");
+      Assert.assertNotNull(field);
+
+      JavaClass edited = (JavaClass) resource.getJavaSource();
+      edited.removeField(edited.getField("count"));
+      edited.setName("Edited");
+      Assert.assertEquals("org.jboss.forge.test.Example", resource.toString());
+      Assert.assertNotNull(resource.getChild("count"));
+      Assert.assertEquals("count", ((org.jboss.forge.parser.java.Field<?>) field.getUnderlyingResourceObject()).getName());
+   }
 }
@@ -31,7 +31,7 @@ public class XMLResourceImpl extends AbstractFileResource<XMLResource> implement
    @Override
    public XMLResource setContents(Node node)
    {
-      setContents(XMLParser.toXMLString(node));
+      setContentsIfChanged(XMLParser.toXMLString(node));
       return this;
    }
 
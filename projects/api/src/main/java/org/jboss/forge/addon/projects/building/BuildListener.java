@@ -0,0 +1,39 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.jboss.forge.addon.projects.building;
+
+/**
+ * Receives the output and progress of a build started with
+ * {@link ProjectBuilder#build(java.util.concurrent.Executor, BuildListener)}. Methods are called from the threads
+ * running the build, in the order the build system reports the events.
+ */
+public interface BuildListener
+{
+   /**
+    * Called for each line of output written by the build system.
+    * 
+    * @param line the output line, without line terminator
+    * @param error <code>true</code> if the line was written to the error stream
+    */
+   void output(String line, boolean error);
+
+   /**
+    * Called when the build of a module begins.
+    */
+   void moduleStarted(String module);
+
+   /**
+    * Called when the build of a module completes.
+    */
+   void moduleFinished(String module, boolean success);
+
+   /**
+    * Called when a module reports the results of its test execution.
+    */
+   void testsCompleted(String module, int run, int failures, int errors, int skipped);
+}
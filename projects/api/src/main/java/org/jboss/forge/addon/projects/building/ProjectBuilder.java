@@ -8,6 +8,8 @@
 package org.jboss.forge.addon.projects.building;
 
 import java.io.PrintStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 import org.jboss.forge.addon.resource.Resource;
 
@@ -39,4 +41,11 @@ public interface ProjectBuilder
     */
    Resource<?> build(PrintStream out, PrintStream err) throws BuildException;
 
+   /**
+    * Start the build on the given {@link Executor} and return immediately. Output and progress are reported to the
+    * given {@link BuildListener}. The returned {@link Future} yields the final product, or fails with a
+    * {@link BuildException}; cancelling it stops the build.
+    */
+   Future<Resource<?>> build(Executor executor, BuildListener listener);
+
 }
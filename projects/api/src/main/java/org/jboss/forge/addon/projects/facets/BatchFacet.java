@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.jboss.forge.addon.projects.facets;
+
+import org.jboss.forge.addon.projects.Project;
+import org.jboss.forge.addon.projects.ProjectFacet;
+
+/**
+ * A {@link ProjectFacet} able to group several modifications of the {@link Project} build descriptor into a single
+ * write. Batches may be nested:
+ * 
+ * <pre>
+ * batch.beginBatch();
+ * boolean success = false;
+ * try
+ * {
+ *    // modify the project
+ *    success = true;
+ * }
+ * finally
+ * {
+ *    if (success)
+ *       batch.commitBatch();
+ *    else
+ *       batch.rollbackBatch();
+ * }
+ * </pre>
+ */
+public interface BatchFacet extends ProjectFacet
+{
+   /**
+    * Start a batch of modifications. Until the outermost batch is committed, changes are only recorded in memory.
+    */
+   void beginBatch();
+
+   /**
+    * End the innermost batch. The outermost commit writes all recorded changes, unless a nested batch was rolled back,
+    * in which case they are discarded. Throws {@link IllegalStateException} if no batch is started.
+    */
+   void commitBatch();
+
+   /**
+    * End the innermost batch and mark the whole batch as failed, so that no change recorded since the outermost
+    * {@link #beginBatch()} is written. Throws {@link IllegalStateException} if no batch is started.
+    */
+   void rollbackBatch();
+
+   /**
+    * Returns <code>true</code> if a batch was started and was not already committed or rolled back.
+    */
+   boolean isBatchStarted();
+}
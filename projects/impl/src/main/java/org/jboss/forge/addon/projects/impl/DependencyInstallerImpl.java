@@ -9,6 +9,7 @@ import org.jboss.forge.addon.dependencies.builder.DependencyQueryBuilder;
 import org.jboss.forge.addon.dependencies.util.NonSnapshotDependencyFilter;
 import org.jboss.forge.addon.projects.Project;
 import org.jboss.forge.addon.projects.dependencies.DependencyInstaller;
+import org.jboss.forge.addon.projects.facets.BatchFacet;
 import org.jboss.forge.addon.projects.facets.DependencyFacet;
 import org.jboss.forge.furnace.util.Strings;
 
@@ -19,6 +20,22 @@ public class DependencyInstallerImpl implements DependencyInstaller
 {
    @Override
    public Dependency install(final Project project, final Dependency request)
+   {
+      BatchFacet batch = beginBatch(project);
+      boolean success = false;
+      try
+      {
+         Dependency installed = doInstall(project, request);
+         success = true;
+         return installed;
+      }
+      finally
+      {
+         endBatch(batch, success);
+      }
+   }
+
+   private Dependency doInstall(final Project project, final Dependency request)
    {
       DependencyFacet deps = project.getFacet(DependencyFacet.class);
       final Dependency dependency = deps.resolveProperties(request);
@@ -107,21 +124,56 @@ public class DependencyInstallerImpl implements DependencyInstaller
    public Dependency installManaged(Project project, Dependency dependency)
    {
       DependencyFacet deps = project.getFacet(DependencyFacet.class);
-
-      if (Strings.isNullOrEmpty(dependency.getCoordinate().getVersion()))
+      BatchFacet batch = beginBatch(project);
+      boolean success = false;
+      try
       {
-         // we didn't request a specific version
-         updateManagedDependency(deps, dependency);
+         if (Strings.isNullOrEmpty(dependency.getCoordinate().getVersion()))
+         {
+            // we didn't request a specific version
+            updateManagedDependency(deps, dependency);
+         }
+         else
+         {
+            // we requested a specific version
+            updateManagedDependency(deps, dependency);
+         }
+         success = true;
       }
-      else
+      finally
       {
-         // we requested a specific version
-         updateManagedDependency(deps, dependency);
+         endBatch(batch, success);
       }
 
       return dependency;
    }
 
+   /**
+    * Starts a batch on the build system of the given {@link Project}, if it supports it, so that the dependency and
+    * managed dependency are written at once.
+    */
+   private BatchFacet beginBatch(final Project project)
+   {
+      BatchFacet batch = null;
+      if (project.hasFacet(BatchFacet.class))
+      {
+         batch = project.getFacet(BatchFacet.class);
+         batch.beginBatch();
+      }
+      return batch;
+   }
+
+   private void endBatch(final BatchFacet batch, final boolean success)
+   {
+      if (batch != null)
+      {
+         if (success)
+            batch.commitBatch();
+         else
+            batch.rollbackBatch();
+      }
+   }
+
    @Override
    public boolean isInstalled(final Project project, final Dependency dependency)
    {
@@ -6,9 +6,9 @@
  */
 package org.jboss.forge.addon.projects.impl;
 
-import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map.Entry;
 
 import javax.inject.Singleton;
 
@@ -18,46 +18,64 @@ import org.jboss.forge.addon.resource.DirectoryResource;
 import org.jboss.forge.furnace.util.Assert;
 
 /**
- * A simple in-memory {@link ProjectCache}.
+ * A simple in-memory {@link ProjectCache}. {@link Project} instances are strongly referenced and evicted in least
+ * recently used order once more than <code>project.cache.size</code> (default 64) projects are stored.
  * 
  * @author <a href="mailto:lincolnbaxter@gmail.com">Lincoln Baxter, III</a>
  */
 @Singleton
 public class InMemoryProjectCache implements ProjectCache
 {
-   private final Map<String, WeakReference<Project>> projects = new ConcurrentHashMap<String, WeakReference<Project>>();
+   private static final int MAX_SIZE = Integer.getInteger("project.cache.size", 64);
+
+   private final Map<String, Project> projects = new LinkedHashMap<String, Project>(16, 0.75f, true)
+   {
+      private static final long serialVersionUID = -3389018475066406012L;
+
+      @Override
+      protected boolean removeEldestEntry(Entry<String, Project> eldest)
+      {
+         return size() > MAX_SIZE;
+      }
+   };
 
    @Override
    public Project get(DirectoryResource dir)
    {
       Assert.notNull(dir, "Directory Resource should not be null");
 
-      WeakReference<Project> ref = projects.get(dir.getFullyQualifiedName());
-
-      Project project = null;
-      if (ref != null)
-         project = ref.get();
-
-      return project;
+      synchronized (projects)
+      {
+         return projects.get(dir.getFullyQualifiedName());
+      }
    }
 
    @Override
    public void invalidate()
    {
-      this.projects.clear();
+      synchronized (projects)
+      {
+         this.projects.clear();
+      }
    }
 
    @Override
    public void store(Project project)
    {
       Assert.notNull(project, "Project should not be null");
-      this.projects.put(project.getProjectRoot().getFullyQualifiedName(), new WeakReference<Project>(project));
+      synchronized (projects)
+      {
+         this.projects.put(project.getProjectRoot().getFullyQualifiedName(), project);
+      }
    }
 
    @Override
    public void evict(Project project)
    {
-      this.projects.remove(project.getProjectRoot().getFullyQualifiedName());
+      synchronized (projects)
+      {
+         this.projects.remove(project.getProjectRoot().getFullyQualifiedName());
+      }
    }
 
 }
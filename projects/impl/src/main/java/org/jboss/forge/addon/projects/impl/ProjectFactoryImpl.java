@@ -9,9 +9,11 @@ package org.jboss.forge.addon.projects.impl;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -31,8 +33,10 @@ import org.jboss.forge.addon.projects.ProjectListener;
 import org.jboss.forge.addon.projects.spi.ProjectCache;
 import org.jboss.forge.addon.resource.DirectoryResource;
 import org.jboss.forge.addon.resource.FileResource;
+import org.jboss.forge.addon.resource.Resource;
 import org.jboss.forge.addon.resource.ResourceFactory;
 import org.jboss.forge.addon.resource.events.ResourceEvent;
+import org.jboss.forge.addon.resource.events.ResourceModified;
 import org.jboss.forge.addon.resource.monitor.ResourceListener;
 import org.jboss.forge.addon.resource.monitor.ResourceMonitor;
 import org.jboss.forge.furnace.addons.AddonRegistry;
@@ -67,15 +71,14 @@ public class ProjectFactoryImpl implements ProjectFactory
    @Inject
    private Imported<ProjectCache> caches;
 
-   private final List<ListenerRegistration<ResourceListener>> listeners = new ArrayList<ListenerRegistration<ResourceListener>>();
+   /**
+    * The monitor watching each cached {@link Project}, by project root. Guarded by itself.
+    */
+   private final Map<String, ProjectMonitor> monitors = new HashMap<String, ProjectMonitor>();
 
    void shutdown(@Observes @Local PreShutdown event)
    {
       invalidateCaches();
-      for (ListenerRegistration<ResourceListener> registration : listeners)
-      {
-         registration.removeListener();
-      }
    }
 
    private final Predicate<ProjectFacet> notBuildSystemFilter = new Predicate<ProjectFacet>()
@@ -363,12 +366,18 @@ public class ProjectFactoryImpl implements ProjectFactory
          }
       }
 
+      // Projects evicted from the caches since, whether by size or by invalidation, need no monitor anymore
+      releaseMonitors(false);
+
       final ResourceMonitor monitor = project.getProjectRoot().monitor();
       ListenerRegistration<ResourceListener> registration = monitor.addResourceListener(new ResourceListener()
       {
          @Override
          public void processEvent(ResourceEvent event)
          {
+            if (!affectsProjectStructure(project, event))
+               return;
+
             for (ProjectCache cache : caches)
             {
                try
@@ -380,11 +389,98 @@ public class ProjectFactoryImpl implements ProjectFactory
                   caches.release(cache);
                }
             }
-            monitor.cancel();
+            releaseMonitor(project);
          }
       });
 
-      this.listeners.add(registration);
+      ProjectMonitor previous;
+      synchronized (monitors)
+      {
+         previous = monitors.put(project.getProjectRoot().getFullyQualifiedName(), new ProjectMonitor(project,
+                  monitor, registration));
+      }
+      if (previous != null)
+      {
+         previous.cancel();
+      }
+   }
+
+   /**
+    * Cancel the monitor of the given {@link Project}, if it is still the one registered for its root.
+    */
+   private void releaseMonitor(Project project)
+   {
+      ProjectMonitor released = null;
+      synchronized (monitors)
+      {
+         String key = project.getProjectRoot().getFullyQualifiedName();
+         ProjectMonitor current = monitors.get(key);
+         if (current != null && current.project == project)
+         {
+            released = monitors.remove(key);
+         }
+      }
+      if (released != null)
+      {
+         released.cancel();
+      }
+   }
+
+   /**
+    * Cancel the monitors of every {@link Project} no longer held by any {@link ProjectCache}, or of all projects.
+    */
+   private void releaseMonitors(boolean all)
+   {
+      List<ProjectMonitor> candidates;
+      synchronized (monitors)
+      {
+         candidates = new ArrayList<ProjectMonitor>(monitors.values());
+      }
+      for (ProjectMonitor candidate : candidates)
+      {
+         if (all || !isCached(candidate.project))
+         {
+            releaseMonitor(candidate.project);
+         }
+      }
+   }
+
+   private boolean isCached(Project project)
+   {
+      boolean cached = false;
+      for (ProjectCache cache : caches)
+      {
+         try
+         {
+            cached |= cache.get(project.getProjectRoot()) == project;
+         }
+         finally
+         {
+            caches.release(cache);
+         }
+      }
+      return cached;
+   }
+
+   /**
+    * Returns <code>true</code> if the given {@link ResourceEvent} may change which facets are installed in the given
+    * {@link Project}: files or directories being created or deleted, or a file being modified in the project root (such
+    * as a build descriptor). Java source files never affect the project structure.
+    */
+   private boolean affectsProjectStructure(Project project, ResourceEvent event)
+   {
+      Resource<?> resource = event.getResource();
+      if (resource == null)
+         return true;
+      if (resource.getName().endsWith(".java"))
+         return false;
+      if (event instanceof ResourceModified)
+      {
+         if (resource instanceof DirectoryResource)
+            return false;
+         return project.getProjectRoot().equals(resource.getParent());
+      }
+      return true;
    }
 
    private void fireProjectCreated(Project project)
@@ -565,5 +661,30 @@ public class ProjectFactoryImpl implements ProjectFactory
             caches.release(cache);
          }
       }
+      releaseMonitors(true);
+   }
+
+   /**
+    * The {@link ResourceMonitor} evicting a cached {@link Project} when its structure changes.
+    */
+   private static class ProjectMonitor
+   {
+      private final Project project;
+      private final ResourceMonitor monitor;
+      private final ListenerRegistration<ResourceListener> registration;
+
+      public ProjectMonitor(Project project, ResourceMonitor monitor,
+               ListenerRegistration<ResourceListener> registration)
+      {
+         this.project = project;
+         this.monitor = monitor;
+         this.registration = registration;
+      }
+
+      public void cancel()
+      {
+         registration.removeListener();
+         monitor.cancel();
+      }
    }
 }
@@ -1,13 +1,23 @@
 package org.jboss.forge.addon.resource;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 
 import org.jboss.forge.addon.resource.monitor.ResourceMonitor;
+import org.jboss.forge.addon.resource.transaction.ResourceTransaction;
 import org.jboss.forge.furnace.util.Assert;
 import org.jboss.forge.furnace.util.OperatingSystemUtils;
 import org.jboss.forge.furnace.util.Streams;
@@ -21,6 +31,9 @@ import org.jboss.forge.furnace.util.Streams;
 public abstract class AbstractFileResource<T extends FileResource<T>> extends AbstractResource<File> implements
          FileResource<T>
 {
+   static final String ATOMIC_WRITE_PROPERTY = "forge.resource.atomic.write";
+   private static final int WRITE_BUFFER_SIZE = 8192;
+
    protected File file;
    protected long lastModification;
 
@@ -201,35 +214,83 @@ public abstract class AbstractFileResource<T extends FileResource<T>> extends Ab
    }
 
    @Override
-   public T setContents(String data)
+   public String getContents()
+   {
+      return getContents(Charset.defaultCharset());
+   }
+
+   @Override
+   public String getContents(Charset charset)
    {
-      if (data == null)
+      if (getFileOperations() != DefaultFileOperations.INSTANCE || file.length() > Integer.MAX_VALUE)
+      {
+         return super.getContents(charset);
+      }
+
+      FileInputStream in = null;
+      try
       {
-         data = "";
+         in = new FileInputStream(file);
+         FileChannel channel = in.getChannel();
+         ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+         while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+         {
+            // read the whole file into the buffer
+         }
+         return new String(buffer.array(), 0, buffer.position(), charset);
+      }
+      catch (IOException e)
+      {
+         throw new ResourceException("cannot read file: " + file.getAbsolutePath(), e);
       }
-      return setContents(data.toCharArray());
+      finally
+      {
+         Streams.closeQuietly(in);
+      }
+   }
+
+   @Override
+   public T setContents(String data)
+   {
+      return setContents(data, Charset.defaultCharset());
    }
 
    @Override
    public T setContents(String data, Charset charset)
    {
-      if (data == null)
-      {
-         data = "";
-      }
-      return setContents(data.toCharArray(), charset);
+      return writeContents(data == null ? "" : data, charset);
    }
 
    @Override
    public T setContents(char[] data, Charset charset)
    {
-      return setContents(new ByteArrayInputStream(new String(data).getBytes(charset)));
+      return writeContents(CharBuffer.wrap(data), charset);
    }
 
    @Override
    public T setContents(final char[] data)
    {
-      return setContents(new ByteArrayInputStream(new String(data).getBytes()));
+      return setContents(data, Charset.defaultCharset());
+   }
+
+   @Override
+   public boolean setContentsIfChanged(String data)
+   {
+      return setContentsIfChanged(data, Charset.defaultCharset());
+   }
+
+   @Override
+   public boolean setContentsIfChanged(String data, Charset charset)
+   {
+      CharSequence contents = data == null ? "" : data;
+      if (hasContents(contents, charset))
+      {
+         WriteStatistics.fileSkipped();
+         return false;
+      }
+      writeContents(contents, charset);
+      WriteStatistics.fileWritten();
+      return true;
    }
 
    @Override
@@ -238,6 +299,30 @@ public abstract class AbstractFileResource<T extends FileResource<T>> extends Ab
    {
       Assert.notNull(data, "InputStream must not be null.");
 
+      try
+      {
+         OutputStream out = getResourceOutputStream();
+         try
+         {
+            Streams.write(data, out);
+            out.flush();
+         }
+         finally
+         {
+            Streams.closeQuietly(data);
+            Streams.closeQuietly(out);
+         }
+      }
+      catch (IOException e)
+      {
+         throw new ResourceException(e);
+      }
+      return (T) this;
+   }
+
+   @Override
+   public OutputStream getResourceOutputStream()
+   {
       try
       {
          if (!exists())
@@ -248,30 +333,166 @@ public abstract class AbstractFileResource<T extends FileResource<T>> extends Ab
                throw new IOException("Failed to create file: " + file);
             }
          }
+         return getFileOperations().createOutputStream(file);
+      }
+      catch (IOException e)
+      {
+         throw new ResourceException(e);
+      }
+   }
+
+   /**
+    * Encodes the given characters in chunks straight into the file, so that the content is never copied as a whole. If
+    * the system property {@value #ATOMIC_WRITE_PROPERTY} is <code>true</code> and no {@link ResourceTransaction} is
+    * started, the content is written to a temporary file that is then renamed over this one; the owner's write and
+    * execute permissions are copied to it, but other attributes (group and other permissions, ownership) are not
+    * preserved. All character based <code>setContents</code> methods delegate here.
+    */
+   @SuppressWarnings("unchecked")
+   protected T writeContents(CharSequence data, Charset charset)
+   {
+      Assert.notNull(charset, "Charset must not be null.");
+
+      boolean atomic = Boolean.getBoolean(ATOMIC_WRITE_PROPERTY)
+               && getFileOperations() == DefaultFileOperations.INSTANCE;
+      File temp = null;
+      try
+      {
+         OutputStream out;
+         if (atomic)
+         {
+            getParent().mkdirs();
+            temp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+            if (file.exists())
+            {
+               temp.setExecutable(file.canExecute());
+               temp.setWritable(file.canWrite());
+            }
+            out = new FileOutputStream(temp);
+         }
+         else
+         {
+            out = getResourceOutputStream();
+         }
 
-         OutputStream out = getFileOperations().createOutputStream(file);
          try
          {
-            Streams.write(data, out);
+            WritableByteChannel channel = (out instanceof FileOutputStream) ? ((FileOutputStream) out).getChannel()
+                     : Channels.newChannel(out);
+            encode(data, charset, channel);
+            out.flush();
          }
          finally
          {
-            Streams.closeQuietly(data);
-            out.flush();
             Streams.closeQuietly(out);
-            if (OperatingSystemUtils.isWindows())
-            {
-               System.gc();
-            }
+         }
+
+         if (atomic)
+         {
+            replace(temp, file);
          }
       }
       catch (IOException e)
       {
          throw new ResourceException(e);
       }
+      finally
+      {
+         if (temp != null)
+         {
+            temp.delete();
+         }
+      }
       return (T) this;
    }
 
+   /**
+    * Renames the source file over the target file. Some platforms do not rename over an existing file, in which case
+    * the target is moved aside first and restored if the source cannot take its place.
+    */
+   private static void replace(File source, File target) throws IOException
+   {
+      if (source.renameTo(target))
+         return;
+
+      File backup = File.createTempFile(target.getName(), ".bak", target.getParentFile());
+      backup.delete();
+      if (!target.renameTo(backup))
+      {
+         throw new IOException("Failed to replace file: " + target);
+      }
+      if (!source.renameTo(target))
+      {
+         if (!backup.renameTo(target))
+         {
+            throw new IOException("Failed to replace file: " + target + "; its previous contents were kept in "
+                     + backup);
+         }
+         throw new IOException("Failed to replace file: " + target);
+      }
+      backup.delete();
+   }
+
+   private static void encode(CharSequence data, Charset charset, WritableByteChannel channel) throws IOException
+   {
+      CharsetEncoder encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+               .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      CharBuffer in = CharBuffer.wrap(data);
+      int estimate = (int) Math.min(WRITE_BUFFER_SIZE, (long) (data.length() * encoder.maxBytesPerChar()));
+      ByteBuffer buffer = ByteBuffer.allocate(Math.max(estimate, 16));
+      CoderResult result;
+      do
+      {
+         result = encoder.encode(in, buffer, true);
+         drain(buffer, channel);
+      }
+      while (result.isOverflow());
+      while (encoder.flush(buffer).isOverflow())
+      {
+         drain(buffer, channel);
+      }
+      drain(buffer, channel);
+   }
+
+   /**
+    * Compares the encoded characters with the current contents of the file as both are streamed, so that neither is
+    * held in memory as a whole.
+    */
+   private boolean hasContents(CharSequence data, Charset charset)
+   {
+      if (!exists() || isDirectory())
+      {
+         return false;
+      }
+
+      InputStream in = null;
+      try
+      {
+         in = getResourceInputStream();
+         ContentComparison comparison = new ContentComparison(in);
+         encode(data, charset, comparison);
+         return comparison.matches();
+      }
+      catch (IOException e)
+      {
+         return false;
+      }
+      finally
+      {
+         Streams.closeQuietly(in);
+      }
+   }
+
+   private static void drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException
+   {
+      buffer.flip();
+      while (buffer.hasRemaining())
+      {
+         channel.write(buffer);
+      }
+      buffer.clear();
+   }
+
    @Override
    public boolean createNewFile()
    {
@@ -374,4 +595,57 @@ public abstract class AbstractFileResource<T extends FileResource<T>> extends Ab
       return resourceFactory.getFileOperations();
    }
 
-}
\ No newline at end of file
+   /**
+    * A {@link WritableByteChannel} that compares the bytes written to it with those of an {@link InputStream}.
+    */
+   private static class ContentComparison implements WritableByteChannel
+   {
+      private final InputStream existing;
+      private final byte[] buffer = new byte[WRITE_BUFFER_SIZE];
+      private boolean equal = true;
+
+      public ContentComparison(InputStream existing)
+      {
+         this.existing = existing;
+      }
+
+      @Override
+      public int write(ByteBuffer src) throws IOException
+      {
+         int count = src.remaining();
+         while (equal && src.hasRemaining())
+         {
+            int read = existing.read(buffer, 0, Math.min(buffer.length, src.remaining()));
+            if (read < 0)
+            {
+               equal = false;
+            }
+            for (int i = 0; equal && i < read; i++)
+            {
+               equal = buffer[i] == src.get();
+            }
+         }
+         src.position(src.limit());
+         return count;
+      }
+
+      /**
+       * Returns true if every byte written so far was equal, and the {@link InputStream} has no more bytes.
+       */
+      public boolean matches() throws IOException
+      {
+         return equal && existing.read() < 0;
+      }
+
+      @Override
+      public boolean isOpen()
+      {
+         return true;
+      }
+
+      @Override
+      public void close()
+      {
+      }
+   }
+}
@@ -9,8 +9,9 @@ package org.jboss.forge.addon.resource;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 import org.jboss.forge.addon.facets.AbstractFaceted;
@@ -72,30 +73,49 @@ public abstract class AbstractResource<T> extends AbstractFaceted<ResourceFacet>
     */
    protected abstract List<Resource<?>> doListResources();
 
+   /**
+    * Returns an unmodifiable snapshot of the children, sorted by fully qualified name.
+    */
    @Override
-   public synchronized List<Resource<?>> listResources()
+   public List<Resource<?>> listResources()
    {
-      List<Resource<?>> resources = doListResources();
-
-      Collections.sort(resources, new FQNResourceComparator());
-      return resources;
+      return sortByFullyQualifiedName(doListResources());
    }
 
    @Override
-   public synchronized List<Resource<?>> listResources(final ResourceFilter filter)
+   public List<Resource<?>> listResources(final ResourceFilter filter)
    {
       List<Resource<?>> result = new ArrayList<Resource<?>>();
-      for (Resource<?> resource : doListResources())
+      for (Resource<?> resource : listResources())
       {
          if (filter.accept(resource))
          {
             result.add(resource);
          }
       }
+      return Collections.unmodifiableList(result);
+   }
 
-      Collections.sort(result, new FQNResourceComparator());
+   /**
+    * Returns an unmodifiable copy of the given resources, sorted by fully qualified name. Each name is computed only
+    * once, as building it walks up the parent chain of virtual resources.
+    */
+   protected static List<Resource<?>> sortByFullyQualifiedName(Collection<Resource<?>> resources)
+   {
+      NamedResource[] named = new NamedResource[resources.size()];
+      int i = 0;
+      for (Resource<?> resource : resources)
+      {
+         named[i++] = new NamedResource(resource);
+      }
+      Arrays.sort(named);
 
-      return result;
+      List<Resource<?>> result = new ArrayList<Resource<?>>(named.length);
+      for (NamedResource entry : named)
+      {
+         result.add(entry.resource);
+      }
+      return Collections.unmodifiableList(result);
    }
 
    @Override
@@ -147,12 +167,21 @@ public abstract class AbstractResource<T> extends AbstractFaceted<ResourceFacet>
       return getFullyQualifiedName().hashCode();
    }
 
-   private static class FQNResourceComparator implements Comparator<Resource<?>>
+   private static class NamedResource implements Comparable<NamedResource>
    {
+      private final String name;
+      private final Resource<?> resource;
+
+      public NamedResource(Resource<?> resource)
+      {
+         this.name = resource.getFullyQualifiedName();
+         this.resource = resource;
+      }
+
       @Override
-      public int compare(Resource<?> left, Resource<?> right)
+      public int compareTo(NamedResource other)
       {
-         return left.getFullyQualifiedName().compareTo(right.getFullyQualifiedName());
+         return name.compareTo(other.name);
       }
    }
 
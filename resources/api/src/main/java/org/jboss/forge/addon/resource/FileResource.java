@@ -2,6 +2,7 @@ package org.jboss.forge.addon.resource;
 
 import java.io.File;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 
 import org.jboss.forge.addon.resource.monitor.ResourceMonitor;
@@ -70,11 +71,34 @@ public interface FileResource<T extends FileResource<T>> extends Resource<File>
     */
    public T setContents(final char[] data, Charset charset);
 
+   /**
+    * Set the contents of this {@link FileResource} like {@link #setContents(String)}, unless the file already holds
+    * exactly the same bytes, in which case it is left untouched: its modification time is kept and no change is
+    * reported to resource monitors.
+    * 
+    * @return true if the file was written, false if it was already up to date.
+    */
+   public boolean setContentsIfChanged(String data);
+
+   /**
+    * Set the contents of this {@link FileResource} like {@link #setContents(String, Charset)}, unless the file already
+    * holds exactly the same bytes, in which case it is left untouched.
+    * 
+    * @return true if the file was written, false if it was already up to date.
+    */
+   public boolean setContentsIfChanged(String data, Charset charset);
+
    /**
     * Set the contents of this {@link FileResource} to the contents of the given {@link InputStream}.
     */
    public T setContents(final InputStream data);
 
+   /**
+    * Return an {@link OutputStream} that replaces the contents of this {@link FileResource}, creating it first if it does
+    * not exist. The caller is responsible for closing the stream.
+    */
+   public OutputStream getResourceOutputStream();
+
    /**
     * Create the file in the underlying resource system. Necessary directory paths will be created automatically.
     */
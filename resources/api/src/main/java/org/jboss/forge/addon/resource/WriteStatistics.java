@@ -0,0 +1,50 @@
+/**
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+
+package org.jboss.forge.addon.resource;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the files written and skipped by {@link FileResource#setContentsIfChanged(String, java.nio.charset.Charset)}
+ * since startup. Callers interested in a single operation compare the counts taken before and after it.
+ */
+public final class WriteStatistics
+{
+   private static final AtomicLong written = new AtomicLong();
+   private static final AtomicLong skipped = new AtomicLong();
+
+   private WriteStatistics()
+   {
+   }
+
+   /**
+    * Returns how many files had different contents and were written.
+    */
+   public static long getWritten()
+   {
+      return written.get();
+   }
+
+   /**
+    * Returns how many files already had the given contents and were left untouched.
+    */
+   public static long getSkipped()
+   {
+      return skipped.get();
+   }
+
+   static void fileWritten()
+   {
+      written.incrementAndGet();
+   }
+
+   static void fileSkipped()
+   {
+      skipped.incrementAndGet();
+   }
+}
@@ -6,6 +6,16 @@
  */
 package org.jboss.forge.addon.resource.visit;
 
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jboss.forge.addon.resource.DirectoryResource;
 import org.jboss.forge.addon.resource.Resource;
 import org.jboss.forge.addon.resource.ResourceFilter;
 
@@ -92,9 +102,204 @@ public class ResourceVisit
       }
    }
 
+   /**
+    * Perform the visit using the given {@link ResourceVisitor}, descending into sub-directories concurrently on the
+    * given {@link ExecutorService}. This method blocks until the visit is complete or terminated. The given
+    * {@link ResourceVisitor} and {@link ResourceFilter} instances must be thread-safe, and no particular visit order is
+    * guaranteed. Any {@link RuntimeException} or {@link Error} thrown by the visitor terminates the visit and is
+    * re-thrown to the caller.
+    * 
+    * @param executor the executor on which directories are visited
+    * @param visitor the visitor instance
+    * @param recurseFilter the filter that will accept resources to recurse into
+    * @param visitFilter the filter that will accept resources to visit
+    */
+   public void perform(final ExecutorService executor, final ResourceVisitor visitor,
+            final ResourceFilter recurseFilter, final ResourceFilter visitFilter)
+   {
+      new ParallelVisit(executor, visitor, recurseFilter, visitFilter).perform(root);
+   }
+
+   /**
+    * Return an {@link Iterator} over the {@link Resource} instances of this visit, in the same order as
+    * {@link #perform(ResourceVisitor, ResourceFilter, ResourceFilter)}. Resources are listed lazily, one level at a
+    * time, as the iterator advances; only the children of the directories on the current path are held in memory.
+    * Calling {@link VisitContext#terminate()} is not needed: callers may simply stop iterating.
+    * 
+    * @param recurseFilter the filter that will accept resources to recurse into
+    * @param visitFilter the filter that will accept resources to be returned
+    */
+   public Iterator<Resource<?>> iterator(final ResourceFilter recurseFilter, final ResourceFilter visitFilter)
+   {
+      return new VisitIterator(root, recurseFilter, visitFilter);
+   }
+
+   private class ParallelVisit
+   {
+      private final ExecutorService executor;
+      private final ResourceVisitor visitor;
+      private final ResourceFilter recurseFilter;
+      private final ResourceFilter visitFilter;
+
+      private final AtomicInteger pending = new AtomicInteger();
+      private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+      public ParallelVisit(ExecutorService executor, ResourceVisitor visitor, ResourceFilter recurseFilter,
+               ResourceFilter visitFilter)
+      {
+         this.executor = executor;
+         this.visitor = visitor;
+         this.recurseFilter = recurseFilter;
+         this.visitFilter = visitFilter;
+      }
+
+      public void perform(Resource<?> root)
+      {
+         schedule(root);
+         synchronized (pending)
+         {
+            boolean interrupted = false;
+            while (pending.get() > 0)
+            {
+               try
+               {
+                  pending.wait();
+               }
+               catch (InterruptedException e)
+               {
+                  context.terminate();
+                  interrupted = true;
+               }
+            }
+            if (interrupted)
+               Thread.currentThread().interrupt();
+         }
+
+         Throwable cause = failure.get();
+         if (cause instanceof RuntimeException)
+            throw (RuntimeException) cause;
+         if (cause instanceof Error)
+            throw (Error) cause;
+      }
+
+      private void schedule(final Resource<?> directory)
+      {
+         pending.incrementAndGet();
+         Runnable task = new Runnable()
+         {
+            @Override
+            public void run()
+            {
+               try
+               {
+                  visit(directory);
+               }
+               catch (Throwable e)
+               {
+                  failure.compareAndSet(null, e);
+                  context.terminate();
+               }
+               finally
+               {
+                  if (pending.decrementAndGet() == 0)
+                  {
+                     synchronized (pending)
+                     {
+                        pending.notifyAll();
+                     }
+                  }
+               }
+            }
+         };
+
+         try
+         {
+            executor.execute(task);
+         }
+         catch (RejectedExecutionException e)
+         {
+            task.run();
+         }
+      }
+
+      private void visit(Resource<?> resource)
+      {
+         if (context.isTerminated())
+            return;
+
+         if (visitFilter.accept(resource))
+            visitor.visit(context, resource);
+
+         if (recurseFilter.accept(resource))
+         {
+            for (Resource<?> child : resource.listResources())
+            {
+               if (context.isTerminated())
+                  break;
+               if (child instanceof DirectoryResource)
+                  schedule(child);
+               else
+                  visit(child);
+            }
+         }
+      }
+   }
+
+   private static class VisitIterator implements Iterator<Resource<?>>
+   {
+      private final ResourceFilter recurseFilter;
+      private final ResourceFilter visitFilter;
+      private final LinkedList<Iterator<? extends Resource<?>>> stack = new LinkedList<Iterator<? extends Resource<?>>>();
+      private Resource<?> next;
+
+      public VisitIterator(Resource<?> root, ResourceFilter recurseFilter, ResourceFilter visitFilter)
+      {
+         this.recurseFilter = recurseFilter;
+         this.visitFilter = visitFilter;
+         this.stack.push(Collections.<Resource<?>> singletonList(root).iterator());
+      }
+
+      @Override
+      public boolean hasNext()
+      {
+         while (next == null && !stack.isEmpty())
+         {
+            Iterator<? extends Resource<?>> current = stack.peek();
+            if (!current.hasNext())
+            {
+               stack.pop();
+               continue;
+            }
+
+            Resource<?> resource = current.next();
+            if (recurseFilter.accept(resource))
+               stack.push(resource.listResources().iterator());
+            if (visitFilter.accept(resource))
+               next = resource;
+         }
+         return next != null;
+      }
+
+      @Override
+      public Resource<?> next()
+      {
+         if (!hasNext())
+            throw new NoSuchElementException();
+         Resource<?> result = next;
+         next = null;
+         return result;
+      }
+
+      @Override
+      public void remove()
+      {
+         throw new UnsupportedOperationException();
+      }
+   }
+
    private static class VisitContextImpl implements VisitContext
    {
-      private boolean terminated;
+      private volatile boolean terminated;
 
       @Override
       public void terminate()
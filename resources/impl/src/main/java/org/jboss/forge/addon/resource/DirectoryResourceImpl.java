@@ -11,7 +11,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.jboss.forge.furnace.util.OperatingSystemUtils;
@@ -31,29 +31,34 @@ public class DirectoryResourceImpl extends AbstractFileResource<DirectoryResourc
       super(factory, file);
    }
 
+   /**
+    * The children are cached as an unmodifiable snapshot, already sorted, until this directory becomes stale.
+    */
    @Override
    protected List<Resource<?>> doListResources()
    {
-      if (isStale())
-      {
-         listCache = null;
-      }
-
-      if (listCache == null)
+      List<Resource<?>> result = isStale() ? null : listCache;
+      if (result == null)
       {
-         listCache = new LinkedList<Resource<?>>();
-
          File[] files = getFileOperations().listFiles(file);
+         List<Resource<?>> children = new ArrayList<Resource<?>>(files == null ? 0 : files.length);
          if (files != null)
          {
             for (File f : files)
             {
-               listCache.add(resourceFactory.create(f));
+               children.add(resourceFactory.create(f));
             }
          }
+         result = sortByFullyQualifiedName(children);
+         listCache = result;
       }
+      return result;
+   }
 
-      return listCache;
+   @Override
+   public List<Resource<?>> listResources()
+   {
+      return doListResources();
    }
 
    /**
@@ -238,4 +243,18 @@ public class DirectoryResourceImpl extends AbstractFileResource<DirectoryResourc
       throw new UnsupportedOperationException(
                "getContents(Charset) is not supported on DirectoryResource objects");
    }
-}
\ No newline at end of file
+
+   @Override
+   public boolean setContentsIfChanged(String data)
+   {
+      throw new UnsupportedOperationException(
+               "setContentsIfChanged(String) is not supported on DirectoryResource objects");
+   }
+
+   @Override
+   public boolean setContentsIfChanged(String data, Charset charset)
+   {
+      throw new UnsupportedOperationException(
+               "setContentsIfChanged(String, Charset) is not supported on DirectoryResource objects");
+   }
+}
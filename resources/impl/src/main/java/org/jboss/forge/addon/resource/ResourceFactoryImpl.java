@@ -6,8 +6,14 @@
  */
 package org.jboss.forge.addon.resource;
 
-import java.util.TreeMap;
-
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
@@ -15,8 +21,9 @@ import org.jboss.forge.addon.resource.monitor.FileMonitor;
 import org.jboss.forge.addon.resource.monitor.ResourceMonitor;
 import org.jboss.forge.addon.resource.transaction.file.FileResourceTransactionImpl;
 import org.jboss.forge.addon.resource.transaction.file.FileResourceTransactionManager;
-import org.jboss.forge.addon.resource.util.RelatedClassComparator;
 import org.jboss.forge.furnace.addons.AddonRegistry;
+import org.jboss.forge.furnace.event.PostStartup;
+import org.jboss.forge.furnace.event.PreShutdown;
 import org.jboss.forge.furnace.services.Imported;
 import org.jboss.forge.furnace.util.Assert;
 
@@ -41,38 +48,130 @@ public class ResourceFactoryImpl implements ResourceFactory
 
    private Imported<ResourceGenerator<?, ?>> instances;
 
+   /**
+    * Snapshot of the currently imported {@link ResourceGenerator} instances, rebuilt whenever an addon starts or stops.
+    */
+   private volatile List<ResourceGenerator<?, ?>> generators;
+
+   /**
+    * Generators whose {@link ResourceGenerator#handles(Class, Object)} accepted a given (requested type, file name)
+    * pair. Only {@link File} resources are cached, since generators for other underlying types may inspect the value
+    * itself.
+    */
+   private final ConcurrentMap<DispatchKey, ResourceGenerator<?, ?>[]> dispatch = new ConcurrentHashMap<DispatchKey, ResourceGenerator<?, ?>[]>();
+
+   private static final int MAX_DISPATCH_ENTRIES = 1024;
+
+   public void addonStarted(@Observes PostStartup event)
+   {
+      invalidateGenerators();
+   }
+
+   public void addonStopped(@Observes PreShutdown event)
+   {
+      invalidateGenerators();
+   }
+
    @Override
    @SuppressWarnings({ "unchecked", "rawtypes" })
    public <E, T extends Resource<E>> T create(final Class<T> type, final E underlyingResource)
    {
-      T result = null;
-      synchronized (this)
+      ResourceGenerator selected = null;
+      Class<?> selectedType = null;
+      for (ResourceGenerator generator : getCandidates(type, underlyingResource))
       {
-         TreeMap<Class<?>, ResourceGenerator> generated = new TreeMap<Class<?>, ResourceGenerator>(
-                  new RelatedClassComparator());
+         Class resourceType = generator.getResourceType(this, type, underlyingResource);
+         if (type.isAssignableFrom(resourceType))
+         {
+            // Most specialized type wins; on a tie the last registered generator wins
+            if (selectedType == null || resourceType == selectedType || !resourceType.isAssignableFrom(selectedType))
+            {
+               selected = generator;
+               selectedType = resourceType;
+            }
+         }
+      }
+      return selected == null ? null : (T) selected.getResource(this, type, underlyingResource);
+   }
 
-         // FIXME Workaround for FORGE-1263
-         if (instances == null)
-            instances = (Imported) registry.getServices(ResourceGenerator.class);
+   private ResourceGenerator<?, ?>[] getCandidates(Class<?> type, Object underlyingResource)
+   {
+      List<ResourceGenerator<?, ?>> generators = getGenerators();
+      if (!(underlyingResource instanceof File))
+         return filter(generators, type, underlyingResource);
+
+      DispatchKey key = new DispatchKey(type, ((File) underlyingResource).getName());
+      ResourceGenerator<?, ?>[] result = dispatch.get(key);
+      if (result == null)
+      {
+         result = filter(generators, type, underlyingResource);
+         if (dispatch.size() >= MAX_DISPATCH_ENTRIES)
+            dispatch.clear();
+         // Do not cache results computed from a snapshot that has since been replaced
+         if (generators == this.generators)
+            dispatch.put(key, result);
+      }
+      return result;
+   }
 
-         for (ResourceGenerator generator : instances)
+   private ResourceGenerator<?, ?>[] filter(List<ResourceGenerator<?, ?>> generators, Class<?> type,
+            Object underlyingResource)
+   {
+      List<ResourceGenerator<?, ?>> result = new ArrayList<ResourceGenerator<?, ?>>(generators.size());
+      for (ResourceGenerator<?, ?> generator : generators)
+      {
+         if (generator.handles(type, underlyingResource))
          {
-            if (generator.handles(type, underlyingResource))
+            result.add(generator);
+         }
+      }
+      return result.toArray(new ResourceGenerator<?, ?>[result.size()]);
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   private List<ResourceGenerator<?, ?>> getGenerators()
+   {
+      List<ResourceGenerator<?, ?>> result = generators;
+      if (result == null)
+      {
+         synchronized (this)
+         {
+            result = generators;
+            if (result == null)
             {
-               Class resourceType = generator.getResourceType(this, type, underlyingResource);
-               if (type.isAssignableFrom(resourceType))
+               // FIXME Workaround for FORGE-1263
+               if (instances == null)
+                  instances = (Imported) registry.getServices(ResourceGenerator.class);
+
+               result = new ArrayList<ResourceGenerator<?, ?>>();
+               for (ResourceGenerator<?, ?> generator : instances)
                {
-                  generated.put(resourceType, generator);
+                  result.add(generator);
                }
+               result = Collections.unmodifiableList(result);
+               dispatch.clear();
+               generators = result;
             }
-            instances.release(generator);
          }
-         if (generated.size() > 0)
+      }
+      return result;
+   }
+
+   private void invalidateGenerators()
+   {
+      synchronized (this)
+      {
+         List<ResourceGenerator<?, ?>> previous = generators;
+         generators = null;
+         dispatch.clear();
+         if (previous != null)
          {
-            result = (T) generated.lastEntry().getValue().getResource(this, type, underlyingResource);
+            for (ResourceGenerator<?, ?> generator : previous)
+            {
+               instances.release(generator);
+            }
          }
       }
-      return result;
    }
 
    @Override
@@ -122,4 +221,32 @@ public class ResourceFactoryImpl implements ResourceFactory
       }
    }
 
-}
\ No newline at end of file
+   private static class DispatchKey
+   {
+      private final Class<?> type;
+      private final String name;
+
+      DispatchKey(Class<?> type, String name)
+      {
+         this.type = type;
+         this.name = name;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return 31 * type.hashCode() + name.hashCode();
+      }
+
+      @Override
+      public boolean equals(Object obj)
+      {
+         if (this == obj)
+            return true;
+         if (!(obj instanceof DispatchKey))
+            return false;
+         DispatchKey other = (DispatchKey) obj;
+         return type == other.type && name.equals(other.name);
+      }
+   }
+}
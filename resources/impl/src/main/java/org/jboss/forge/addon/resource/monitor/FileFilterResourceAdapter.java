@@ -39,4 +39,21 @@ public class FileFilterResourceAdapter extends AbstractFileFilter
       boolean accept = filter.accept(resource);
       return accept;
    }
+
+   @Override
+   public int hashCode()
+   {
+      return 31 * resourceFactory.hashCode() + filter.hashCode();
+   }
+
+   @Override
+   public boolean equals(Object obj)
+   {
+      if (this == obj)
+         return true;
+      if (!(obj instanceof FileFilterResourceAdapter))
+         return false;
+      FileFilterResourceAdapter other = (FileFilterResourceAdapter) obj;
+      return resourceFactory.equals(other.resourceFactory) && filter.equals(other.filter);
+   }
 }
@@ -1,4 +1,4 @@
-/**
+/*
  * Copyright 2013 Red Hat, Inc. and/or its affiliates.
  *
  * Licensed under the Eclipse Public License version 1.0, available at
@@ -8,6 +8,16 @@
 package org.jboss.forge.addon.resource.monitor;
 
 import java.io.File;
+import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -15,9 +25,8 @@ import java.util.logging.Logger;
 import javax.enterprise.event.Observes;
 import javax.inject.Singleton;
 
-import org.apache.commons.io.filefilter.FileFilterUtils;
-import org.apache.commons.io.filefilter.IOFileFilter;
 import org.apache.commons.io.monitor.FileAlterationListener;
+import org.apache.commons.io.monitor.FileAlterationListenerAdaptor;
 import org.apache.commons.io.monitor.FileAlterationMonitor;
 import org.apache.commons.io.monitor.FileAlterationObserver;
 import org.jboss.forge.addon.resource.DirectoryResource;
@@ -29,7 +38,16 @@ import org.jboss.forge.furnace.event.PostStartup;
 import org.jboss.forge.furnace.event.PreShutdown;
 
 /**
- * This {@link FileMonitor} uses commons-io to listen for changes in files
+ * This {@link FileMonitor} uses commons-io to listen for changes in files.
+ * 
+ * Registrations are merged: only one {@link FileAlterationObserver} is kept per independent directory tree, no matter
+ * how many {@link ResourceMonitor} instances were registered in it. Directory monitors need a recursive observer;
+ * file monitors only need their parent directory to be listed, and are served by any recursive observer above them.
+ * Every change is dispatched to all {@link ResourceMonitor} instances whose scope contains the changed file. Observers
+ * only list the files their monitors accept, so subtrees excluded by every {@link ResourceFilter} are never scanned.
+ * 
+ * The check interval defaults to 5 seconds and can be changed with the system property
+ * <code>resource.monitor.interval</code> (in milliseconds).
  * 
  * @author <a href="ggastald@redhat.com">George Gastaldi</a>
  */
@@ -41,6 +59,9 @@ public class FileMonitor
    private final Logger log = Logger.getLogger(getClass().getName());
    private FileAlterationMonitor alterationMonitor;
 
+   private final List<ResourceMonitorImpl> monitors = new CopyOnWriteArrayList<ResourceMonitorImpl>();
+   private final Map<File, Observer> observers = new HashMap<File, Observer>();
+
    public FileMonitor()
    {
       alterationMonitor = new FileAlterationMonitor(CHECK_INTERVAL);
@@ -64,13 +85,18 @@ public class FileMonitor
 
    void destroy(@Observes @Local PreShutdown preShutdown) throws Exception
    {
-      for (FileAlterationObserver observer : alterationMonitor.getObservers())
+      synchronized (observers)
       {
-         for (FileAlterationListener listener : observer.getListeners())
+         monitors.clear();
+         for (Observer observer : observers.values())
          {
-            observer.removeListener(listener);
+            for (FileAlterationListener listener : observer.observer.getListeners())
+            {
+               observer.observer.removeListener(listener);
+            }
+            alterationMonitor.removeObserver(observer.observer);
          }
-         alterationMonitor.removeObserver(observer);
+         observers.clear();
       }
       alterationMonitor.stop();
    }
@@ -79,40 +105,281 @@ public class FileMonitor
             final ResourceFilter resourceFilter)
    {
       final DirectoryResource dirResource;
-      IOFileFilter filter;
+      final String fileName;
       if (resource instanceof DirectoryResource)
       {
          dirResource = (DirectoryResource) resource;
-         filter = null;
+         fileName = null;
       }
       else
       {
          dirResource = resource.getParent();
-         filter = FileFilterUtils.nameFileFilter(resource.getName());
+         fileName = resource.getName();
       }
+      FileFilter filter = null;
       if (resourceFilter != null)
       {
-         FileFilterResourceAdapter adapter = new FileFilterResourceAdapter(resourceFactory, resourceFilter);
-         if (filter == null)
+         filter = new FileFilterResourceAdapter(resourceFactory, resourceFilter);
+      }
+      ResourceMonitorImpl monitor = new ResourceMonitorImpl(this, dirResource, resourceFactory, fileName, filter);
+      monitors.add(monitor);
+      reconcileObservers();
+      return monitor;
+   }
+
+   void cancel(ResourceMonitorImpl monitor)
+   {
+      if (monitors.remove(monitor))
+      {
+         reconcileObservers();
+      }
+   }
+
+   /**
+    * Compute the minimal set of observed directory trees for the registered monitors, then add and remove
+    * {@link FileAlterationObserver} instances accordingly. An observer and its snapshot are kept as long as it already
+    * lists every file its monitors need; it is only replaced when a new monitor widens its scope, since the files it
+    * has not listed yet would otherwise be reported as created.
+    */
+   private void reconcileObservers()
+   {
+      synchronized (observers)
+      {
+         Map<File, Boolean> required = new HashMap<File, Boolean>();
+         for (ResourceMonitorImpl monitor : monitors)
+         {
+            File directory = monitor.getDirectory();
+            boolean recursive = monitor.isRecursive();
+            Boolean existing = required.get(directory);
+            required.put(directory, recursive || (existing != null && existing));
+         }
+         // Remove every directory already covered by a recursive ancestor
+         for (Iterator<Entry<File, Boolean>> iterator = required.entrySet().iterator(); iterator.hasNext();)
+         {
+            File directory = iterator.next().getKey();
+            for (File parent = directory.getParentFile(); parent != null; parent = parent.getParentFile())
+            {
+               if (Boolean.TRUE.equals(required.get(parent)))
+               {
+                  iterator.remove();
+                  break;
+               }
+            }
+         }
+
+         // Every monitor is served by the closest observed directory above it
+         Map<File, List<ResourceMonitorImpl>> served = new HashMap<File, List<ResourceMonitorImpl>>();
+         for (File directory : required.keySet())
+         {
+            served.put(directory, new ArrayList<ResourceMonitorImpl>());
+         }
+         for (ResourceMonitorImpl monitor : monitors)
+         {
+            for (File current = monitor.getDirectory(); current != null; current = current.getParentFile())
+            {
+               List<ResourceMonitorImpl> list = served.get(current);
+               if (list != null)
+               {
+                  list.add(monitor);
+                  break;
+               }
+            }
+         }
+
+         for (Iterator<Entry<File, Observer>> iterator = observers.entrySet().iterator(); iterator.hasNext();)
+         {
+            Entry<File, Observer> entry = iterator.next();
+            Boolean recursive = required.get(entry.getKey());
+            List<ResourceMonitorImpl> list = served.get(entry.getKey());
+            if (recursive != null && entry.getValue().isCovering(recursive, list))
+            {
+               entry.getValue().serve(recursive, list);
+            }
+            else
+            {
+               alterationMonitor.removeObserver(entry.getValue().observer);
+               iterator.remove();
+            }
+         }
+
+         for (Entry<File, Boolean> entry : required.entrySet())
+         {
+            if (!observers.containsKey(entry.getKey()))
+            {
+               Observer observer = new Observer(entry.getKey(), entry.getValue(), served.get(entry.getKey()));
+               observers.put(entry.getKey(), observer);
+               alterationMonitor.addObserver(observer.observer);
+            }
+         }
+      }
+   }
+
+   /**
+    * Returns <code>true</code> if one of the given monitors watches the whole tree of the given directory without a
+    * filter, in which case the observer of that directory must list everything.
+    */
+   private static boolean isUnfiltered(File directory, boolean recursive, List<ResourceMonitorImpl> served)
+   {
+      if (recursive)
+      {
+         for (ResourceMonitorImpl monitor : served)
+         {
+            if (monitor.isRecursive() && !monitor.isFiltered() && directory.equals(monitor.getDirectory()))
+               return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * A {@link FileAlterationObserver} for one directory tree, dispatching to every interested monitor.
+    */
+   private class Observer extends FileAlterationListenerAdaptor implements FileFilter
+   {
+      private final File directory;
+      private volatile boolean recursive;
+      private volatile boolean unfiltered;
+      private volatile Set<ResourceMonitorImpl> served;
+      private final FileAlterationObserver observer;
+
+      public Observer(File directory, boolean recursive, List<ResourceMonitorImpl> served)
+      {
+         this.directory = directory;
+         serve(recursive, served);
+         this.observer = new FileAlterationObserver(directory, this);
+         this.observer.addListener(this);
+         try
+         {
+            observer.initialize();
+         }
+         catch (Exception e)
+         {
+            log.log(Level.SEVERE, "Error while initializing File observer", e);
+         }
+      }
+
+      /**
+       * Returns <code>true</code> if this observer already lists every file the given monitors need.
+       */
+      boolean isCovering(boolean recursive, List<ResourceMonitorImpl> monitors)
+      {
+         if (recursive && !this.recursive)
+            return false;
+         if (unfiltered)
+            return true;
+         for (ResourceMonitorImpl monitor : monitors)
+         {
+            if (!isCovering(monitor))
+               return false;
+         }
+         return true;
+      }
+
+      private boolean isCovering(ResourceMonitorImpl monitor)
+      {
+         for (ResourceMonitorImpl current : served)
          {
-            filter = adapter;
+            if (current == monitor || current.covers(monitor))
+               return true;
          }
-         else
+         return false;
+      }
+
+      /**
+       * Serve the given monitors from now on. Files that are no longer listed are reported as deleted by the next
+       * check, but no monitor accepts them anymore.
+       */
+      void serve(boolean recursive, List<ResourceMonitorImpl> monitors)
+      {
+         this.recursive = recursive;
+         this.unfiltered = isUnfiltered(directory, recursive, monitors);
+         this.served = new HashSet<ResourceMonitorImpl>(monitors);
+      }
+
+      /**
+       * Only list the files accepted by one of the served monitors, and the directories leading to nested ones.
+       */
+      @Override
+      public boolean accept(File file)
+      {
+         if (unfiltered)
+            return true;
+         if (!recursive && file.isDirectory())
+            return false;
+         for (ResourceMonitorImpl monitor : served)
          {
-            filter = FileFilterUtils.and(filter, adapter);
+            if (monitor.accepts(file))
+               return true;
+            if (recursive)
+            {
+               for (File current = monitor.getDirectory(); current != null; current = current.getParentFile())
+               {
+                  if (current.equals(file))
+                     return true;
+               }
+            }
          }
+         return false;
       }
-      File directory = dirResource.getUnderlyingResourceObject();
-      FileAlterationObserver observer = new FileAlterationObserver(directory, filter);
-      try
+
+      @Override
+      public void onDirectoryChange(File directory)
       {
-         observer.initialize();
+         for (ResourceMonitorImpl monitor : monitors)
+         {
+            if (monitor.accepts(directory))
+               monitor.onDirectoryChange(directory);
+         }
       }
-      catch (Exception e)
+
+      @Override
+      public void onDirectoryCreate(File directory)
       {
-         log.log(Level.SEVERE, "Error while initializing File observer", e);
+         for (ResourceMonitorImpl monitor : monitors)
+         {
+            if (monitor.accepts(directory))
+               monitor.onDirectoryCreate(directory);
+         }
+      }
+
+      @Override
+      public void onDirectoryDelete(File directory)
+      {
+         for (ResourceMonitorImpl monitor : monitors)
+         {
+            if (monitor.accepts(directory))
+               monitor.onDirectoryDelete(directory);
+         }
+      }
+
+      @Override
+      public void onFileChange(File file)
+      {
+         for (ResourceMonitorImpl monitor : monitors)
+         {
+            if (monitor.accepts(file))
+               monitor.onFileChange(file);
+         }
+      }
+
+      @Override
+      public void onFileCreate(File file)
+      {
+         for (ResourceMonitorImpl monitor : monitors)
+         {
+            if (monitor.accepts(file))
+               monitor.onFileCreate(file);
+         }
+      }
+
+      @Override
+      public void onFileDelete(File file)
+      {
+         for (ResourceMonitorImpl monitor : monitors)
+         {
+            if (monitor.accepts(file))
+               monitor.onFileDelete(file);
+         }
       }
-      alterationMonitor.addObserver(observer);
-      return new ResourceMonitorImpl(dirResource, resourceFactory, alterationMonitor, observer);
    }
 }
@@ -1,4 +1,4 @@
-/**
+/*
  * Copyright 2013 Red Hat, Inc. and/or its affiliates.
  *
  * Licensed under the Eclipse Public License version 1.0, available at
@@ -7,8 +7,11 @@
 
 package org.jboss.forge.addon.resource.monitor;
 
-import org.apache.commons.io.monitor.FileAlterationMonitor;
-import org.apache.commons.io.monitor.FileAlterationObserver;
+import java.io.File;
+import java.io.FileFilter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import org.jboss.forge.addon.resource.DirectoryResource;
 import org.jboss.forge.addon.resource.ResourceFactory;
 import org.jboss.forge.furnace.spi.ListenerRegistration;
@@ -20,20 +23,24 @@ import org.jboss.forge.furnace.spi.ListenerRegistration;
  */
 public class ResourceMonitorImpl implements ResourceMonitor
 {
-   private final FileAlterationMonitor monitor;
-   private final FileAlterationObserver observer;
+   private final FileMonitor monitor;
    private final DirectoryResource resource;
    private final ResourceFactory resourceFactory;
+   private final File directory;
+   private final String fileName;
+   private final FileFilter filter;
+   private final List<FileAlterationListenerAdapter> listeners = new CopyOnWriteArrayList<FileAlterationListenerAdapter>();
 
-   public ResourceMonitorImpl(DirectoryResource resource, ResourceFactory resourceFactory,
-            FileAlterationMonitor monitor,
-            FileAlterationObserver observer)
+   public ResourceMonitorImpl(FileMonitor monitor, DirectoryResource resource, ResourceFactory resourceFactory,
+            String fileName, FileFilter filter)
    {
       super();
+      this.monitor = monitor;
       this.resource = resource;
       this.resourceFactory = resourceFactory;
-      this.monitor = monitor;
-      this.observer = observer;
+      this.directory = resource.getUnderlyingResourceObject();
+      this.fileName = fileName;
+      this.filter = filter;
    }
 
    @Override
@@ -41,13 +48,13 @@ public class ResourceMonitorImpl implements ResourceMonitor
             final ResourceListener listener)
    {
       final FileAlterationListenerAdapter adapter = new FileAlterationListenerAdapter(resourceFactory, listener);
-      observer.addListener(adapter);
+      listeners.add(adapter);
       return new ListenerRegistration<ResourceListener>()
       {
          @Override
          public ResourceListener removeListener()
          {
-            observer.removeListener(adapter);
+            listeners.remove(adapter);
             return listener;
          }
       };
@@ -62,6 +69,116 @@ public class ResourceMonitorImpl implements ResourceMonitor
    @Override
    public void cancel()
    {
-      monitor.removeObserver(observer);
+      listeners.clear();
+      monitor.cancel(this);
+   }
+
+   File getDirectory()
+   {
+      return directory;
+   }
+
+   /**
+    * Directory monitors watch their whole tree; file monitors only watch a single file.
+    */
+   boolean isRecursive()
+   {
+      return fileName == null;
+   }
+
+   boolean isFiltered()
+   {
+      return filter != null;
+   }
+
+   /**
+    * Returns <code>true</code> if every file in the scope of the given monitor is also in the scope of this one.
+    */
+   boolean covers(ResourceMonitorImpl other)
+   {
+      if (filter != null && !filter.equals(other.filter))
+         return false;
+      if (fileName != null)
+         return fileName.equals(other.fileName) && directory.equals(other.directory);
+      if (filter != null)
+         return directory.equals(other.directory);
+      for (File current = other.directory; current != null; current = current.getParentFile())
+      {
+         if (directory.equals(current))
+            return true;
+      }
+      return false;
+   }
+
+   /**
+    * Returns <code>true</code> if the given file is in the scope of this monitor.
+    */
+   boolean accepts(File file)
+   {
+      if (fileName != null)
+      {
+         if (!fileName.equals(file.getName()) || !directory.equals(file.getParentFile()))
+            return false;
+         return filter == null || filter.accept(file);
+      }
+
+      // Every path element below the monitored directory must be accepted, as if the tree was listed with the filter
+      for (File current = file; current != null; current = current.getParentFile())
+      {
+         File parent = current.getParentFile();
+         if (filter != null && !filter.accept(current))
+            return false;
+         if (directory.equals(parent))
+            return true;
+      }
+      return false;
+   }
+
+   void onDirectoryChange(File file)
+   {
+      for (FileAlterationListenerAdapter listener : listeners)
+      {
+         listener.onDirectoryChange(file);
+      }
+   }
+
+   void onDirectoryCreate(File file)
+   {
+      for (FileAlterationListenerAdapter listener : listeners)
+      {
+         listener.onDirectoryCreate(file);
+      }
+   }
+
+   void onDirectoryDelete(File file)
+   {
+      for (FileAlterationListenerAdapter listener : listeners)
+      {
+         listener.onDirectoryDelete(file);
+      }
+   }
+
+   void onFileChange(File file)
+   {
+      for (FileAlterationListenerAdapter listener : listeners)
+      {
+         listener.onFileChange(file);
+      }
+   }
+
+   void onFileCreate(File file)
+   {
+      for (FileAlterationListenerAdapter listener : listeners)
+      {
+         listener.onFileCreate(file);
+      }
+   }
+
+   void onFileDelete(File file)
+   {
+      for (FileAlterationListenerAdapter listener : listeners)
+      {
+         listener.onFileDelete(file);
+      }
    }
 }
@@ -101,6 +101,23 @@ public class FileResourceGeneratorTest
       Assert.assertTrue(childResource.exists());
    }
 
+   @Test
+   public void testSameNameResolvesByCurrentFileType() throws Exception
+   {
+      File parent = OperatingSystemUtils.createTempDir();
+      parent.deleteOnExit();
+      File dir = new File(new File(parent, "a"), "same-name");
+      dir.mkdirs();
+      dir.deleteOnExit();
+      File file = new File(parent, "same-name");
+      file.createNewFile();
+      file.deleteOnExit();
+
+      Assert.assertTrue(factory.create(dir) instanceof DirectoryResource);
+      Assert.assertEquals(FileResourceImpl.class, factory.create(file).getClass());
+      Assert.assertTrue(factory.create(dir) instanceof DirectoryResource);
+   }
+
    @Test
    public void testFileSize() throws Exception
    {
@@ -8,7 +8,10 @@
 package org.jboss.forge.addon.resource;
 
 import java.io.File;
+import java.io.FilenameFilter;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
 
 import javax.inject.Inject;
 
@@ -20,6 +23,7 @@ import org.jboss.forge.arquillian.archive.ForgeArchive;
 import org.jboss.forge.furnace.repositories.AddonDependencyEntry;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -58,4 +62,132 @@ public class FileResourceTest
       Assert.assertNotNull(fileResource);
       Assert.assertNull(fileResource.reify(DirectoryResource.class));
    }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void testSetContentsRoundTripsLargeContent() throws IOException
+   {
+      File file = File.createTempFile("fileresourcetest", ".tmp");
+      file.deleteOnExit();
+      FileResource<?> fileResource = resourceFactory.create(FileResource.class, file);
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 5000; i++)
+      {
+         sb.append("line ").append(i).append(" \u00e9\u00e8\u20ac\n");
+      }
+      String contents = sb.toString();
+      Charset utf8 = Charset.forName("UTF-8");
+
+      fileResource.setContents(contents, utf8);
+      Assert.assertEquals(contents, fileResource.getContents(utf8));
+      Assert.assertEquals(contents.getBytes(utf8).length, file.length());
+
+      fileResource.setContents(contents.toCharArray(), utf8);
+      Assert.assertEquals(contents, fileResource.getContents(utf8));
+
+      fileResource.setContents("");
+      Assert.assertEquals("", fileResource.getContents());
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void testAtomicSetContentsReplacesFile() throws IOException
+   {
+      final File file = File.createTempFile("fileresourcetest", ".tmp");
+      file.deleteOnExit();
+      FileResource<?> fileResource = resourceFactory.create(FileResource.class, file);
+      fileResource.setContents("before");
+      System.setProperty("forge.resource.atomic.write", "true");
+      try
+      {
+         fileResource.setContents("after");
+      }
+      finally
+      {
+         System.clearProperty("forge.resource.atomic.write");
+      }
+      Assert.assertEquals("after", fileResource.getContents());
+      Assert.assertEquals(1, file.getParentFile().listFiles(new FilenameFilter()
+      {
+         @Override
+         public boolean accept(File dir, String name)
+         {
+            return name.startsWith(file.getName());
+         }
+      }).length);
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void testAtomicSetContentsKeepsExecutablePermission() throws IOException
+   {
+      File file = File.createTempFile("fileresourcetest", ".sh");
+      file.deleteOnExit();
+      FileResource<?> fileResource = resourceFactory.create(FileResource.class, file);
+      fileResource.setContents("before");
+      Assume.assumeTrue(file.setExecutable(true));
+      System.setProperty("forge.resource.atomic.write", "true");
+      try
+      {
+         fileResource.setContents("after");
+      }
+      finally
+      {
+         System.clearProperty("forge.resource.atomic.write");
+      }
+      Assert.assertEquals("after", fileResource.getContents());
+      Assert.assertTrue(file.canExecute());
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void testSetContentsIfChangedSkipsIdenticalContent() throws IOException
+   {
+      File file = File.createTempFile("fileresourcetest", ".tmp");
+      file.deleteOnExit();
+      FileResource<?> fileResource = resourceFactory.create(FileResource.class, file);
+      long written = WriteStatistics.getWritten();
+      long skipped = WriteStatistics.getSkipped();
+
+      Assert.assertTrue(fileResource.setContentsIfChanged("generated"));
+      Assert.assertTrue(file.setLastModified(1000L));
+      Assert.assertFalse(fileResource.setContentsIfChanged("generated"));
+      Assert.assertEquals(1000L, file.lastModified());
+      Assert.assertTrue(fileResource.setContentsIfChanged("generate"));
+      Assert.assertTrue(fileResource.setContentsIfChanged("generated!"));
+      Assert.assertEquals("generated!", fileResource.getContents());
+
+      Assert.assertEquals(3, WriteStatistics.getWritten() - written);
+      Assert.assertEquals(1, WriteStatistics.getSkipped() - skipped);
+   }
+
+   @Test
+   public void testDirectoryListingIsSortedSnapshot() throws IOException
+   {
+      File dir = File.createTempFile("fileresourcetest", ".dir");
+      dir.delete();
+      dir.mkdirs();
+      dir.deleteOnExit();
+      for (String name : new String[] { "c.txt", "a.txt", "b.txt" })
+      {
+         File child = new File(dir, name);
+         child.createNewFile();
+         child.deleteOnExit();
+      }
+      DirectoryResource dirResource = resourceFactory.create(DirectoryResource.class, dir);
+      List<Resource<?>> children = dirResource.listResources();
+      Assert.assertEquals(3, children.size());
+      Assert.assertEquals("a.txt", children.get(0).getName());
+      Assert.assertEquals("b.txt", children.get(1).getName());
+      Assert.assertEquals("c.txt", children.get(2).getName());
+      try
+      {
+         children.clear();
+         Assert.fail("Listing should not be modifiable");
+      }
+      catch (UnsupportedOperationException expected)
+      {
+      }
+      Assert.assertEquals(3, dirResource.listResources().size());
+   }
 }
@@ -379,6 +379,182 @@ public class ResourceMonitorTest
       monitor.cancel();
    }
 
+   @Test
+   @SuppressWarnings("unchecked")
+   public void testOverlappingResourceMonitorsShareObserver() throws Exception
+   {
+      File tempDir = OperatingSystemUtils.createTempDir();
+      DirectoryResource tempDirResource = resourceFactory.create(DirectoryResource.class, tempDir);
+      final FileResource<?> childFile = tempDirResource.getChild("pom.xml").reify(FileResource.class);
+      childFile.createNewFile();
+
+      ResourceMonitor dirMonitor = resourceFactory.monitor(tempDirResource);
+      ResourceMonitor fileMonitor = resourceFactory.monitor(childFile);
+      final List<ResourceEvent> dirEvents = new ArrayList<ResourceEvent>();
+      final List<ResourceEvent> fileEvents = new ArrayList<ResourceEvent>();
+      dirMonitor.addResourceListener(new ResourceListener()
+      {
+         @Override
+         public void processEvent(ResourceEvent event)
+         {
+            dirEvents.add(event);
+         }
+      });
+      fileMonitor.addResourceListener(new ResourceListener()
+      {
+         @Override
+         public void processEvent(ResourceEvent event)
+         {
+            fileEvents.add(event);
+         }
+      });
+
+      waitForMonitor(new Callable<Void>()
+      {
+         @Override
+         public Void call() throws Exception
+         {
+            // NEW EVENT: ResourceModified, seen by both monitors
+            childFile.setContents("TEST");
+            return null;
+         }
+      }, new Callable<Boolean>()
+      {
+         @Override
+         public Boolean call() throws Exception
+         {
+            return dirEvents.size() == 1 && fileEvents.size() == 1;
+         }
+      }, 5, TimeUnit.SECONDS);
+
+      dirMonitor.cancel();
+
+      waitForMonitor(new Callable<Void>()
+      {
+         @Override
+         public Void call() throws Exception
+         {
+            // NEW EVENT: ResourceDeleted, seen by the remaining file monitor only
+            childFile.delete();
+            return null;
+         }
+      }, new Callable<Boolean>()
+      {
+         @Override
+         public Boolean call() throws Exception
+         {
+            return fileEvents.size() == 2;
+         }
+      }, 5, TimeUnit.SECONDS);
+
+      Assert.assertEquals(1, dirEvents.size());
+      Assert.assertThat(fileEvents.get(0), is(instanceOf(ResourceModified.class)));
+      Assert.assertThat(fileEvents.get(1), is(instanceOf(ResourceDeleted.class)));
+      fileMonitor.cancel();
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void testFileMonitorsAddedToWatchedDirectory() throws Exception
+   {
+      File tempDir = OperatingSystemUtils.createTempDir();
+      DirectoryResource tempDirResource = resourceFactory.create(DirectoryResource.class, tempDir);
+      final FileResource<?> firstFile = tempDirResource.getChild("first.txt").reify(FileResource.class);
+      final FileResource<?> secondFile = tempDirResource.getChild("second.txt").reify(FileResource.class);
+      firstFile.createNewFile();
+      secondFile.createNewFile();
+
+      ResourceMonitor firstMonitor = resourceFactory.monitor(firstFile);
+      ResourceMonitor secondMonitor = resourceFactory.monitor(secondFile);
+      final List<ResourceEvent> firstEvents = new ArrayList<ResourceEvent>();
+      final List<ResourceEvent> secondEvents = new ArrayList<ResourceEvent>();
+      firstMonitor.addResourceListener(new ResourceListener()
+      {
+         @Override
+         public void processEvent(ResourceEvent event)
+         {
+            firstEvents.add(event);
+         }
+      });
+      secondMonitor.addResourceListener(new ResourceListener()
+      {
+         @Override
+         public void processEvent(ResourceEvent event)
+         {
+            secondEvents.add(event);
+         }
+      });
+
+      waitForMonitor(new Callable<Void>()
+      {
+         @Override
+         public Void call() throws Exception
+         {
+            // NEW EVENT: ResourceModified. The already existing file must not be reported as created
+            secondFile.setContents("TEST");
+            return null;
+         }
+      }, new Callable<Boolean>()
+      {
+         @Override
+         public Boolean call() throws Exception
+         {
+            return !secondEvents.isEmpty();
+         }
+      }, 5, TimeUnit.SECONDS);
+      Thread.sleep(INTERVAL * 2);
+
+      Assert.assertEquals(1, secondEvents.size());
+      Assert.assertThat(secondEvents.get(0), is(instanceOf(ResourceModified.class)));
+      Assert.assertTrue(firstEvents.isEmpty());
+      firstMonitor.cancel();
+      secondMonitor.cancel();
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void testPendingChangesSurviveCancelOfOverlappingMonitor() throws Exception
+   {
+      File tempDir = OperatingSystemUtils.createTempDir();
+      DirectoryResource tempDirResource = resourceFactory.create(DirectoryResource.class, tempDir);
+      final FileResource<?> childFile = tempDirResource.getChild("pom.xml").reify(FileResource.class);
+      childFile.createNewFile();
+
+      ResourceMonitor dirMonitor = resourceFactory.monitor(tempDirResource);
+      final ResourceMonitor fileMonitor = resourceFactory.monitor(childFile);
+      final List<ResourceEvent> dirEvents = new ArrayList<ResourceEvent>();
+      dirMonitor.addResourceListener(new ResourceListener()
+      {
+         @Override
+         public void processEvent(ResourceEvent event)
+         {
+            dirEvents.add(event);
+         }
+      });
+
+      waitForMonitor(new Callable<Void>()
+      {
+         @Override
+         public Void call() throws Exception
+         {
+            // NEW EVENT: ResourceModified, made before the next check and kept by the shared observer
+            childFile.setContents("TEST");
+            fileMonitor.cancel();
+            return null;
+         }
+      }, new Callable<Boolean>()
+      {
+         @Override
+         public Boolean call() throws Exception
+         {
+            return !dirEvents.isEmpty();
+         }
+      }, 5, TimeUnit.SECONDS);
+
+      Assert.assertThat(dirEvents.get(0), is(instanceOf(ResourceModified.class)));
+      dirMonitor.cancel();
+   }
+
    private void waitForMonitor(Callable<Void> task, Callable<Boolean> status, int quantity, TimeUnit unit)
             throws TimeoutException
    {
@@ -9,6 +9,9 @@ package org.jboss.forge.addon.resource.visit;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
@@ -19,6 +22,7 @@ import org.jboss.forge.addon.resource.DirectoryResource;
 import org.jboss.forge.addon.resource.FileResource;
 import org.jboss.forge.addon.resource.Resource;
 import org.jboss.forge.addon.resource.ResourceFactory;
+import org.jboss.forge.addon.resource.ResourceFilter;
 import org.jboss.forge.arquillian.AddonDependency;
 import org.jboss.forge.arquillian.Dependencies;
 import org.jboss.forge.arquillian.archive.ForgeArchive;
@@ -118,6 +122,84 @@ public class ResourceVisitorTest
       }
    }
 
+   @Test
+   public void testParallelResourceVisit() throws IOException
+   {
+      File tempDir = OperatingSystemUtils.createTempDir();
+      tempDir.deleteOnExit();
+      for (int i = 0; i < 4; i++)
+      {
+         File subDir = new File(tempDir, "sub" + i);
+         subDir.mkdir();
+         createTempFile(subDir, false);
+         createTempFile(subDir, false);
+      }
+      FileResource<?> dirResource = resourceFactory.create(DirectoryResource.class, tempDir);
+      ExecutorService executor = Executors.newFixedThreadPool(3);
+      try
+      {
+         final AtomicInteger integer = new AtomicInteger(0);
+         new ResourceVisit(dirResource).perform(executor, new ResourceVisitor()
+         {
+            @Override
+            public void visit(VisitContext context, Resource<?> resource)
+            {
+               integer.incrementAndGet();
+            }
+         }, ACCEPT_ALL, ACCEPT_ALL);
+
+         Assert.assertEquals(13, integer.get());
+      }
+      finally
+      {
+         executor.shutdown();
+         dirResource.delete(true);
+      }
+   }
+
+   @Test
+   public void testResourceVisitIterator() throws IOException
+   {
+      File tempDir = OperatingSystemUtils.createTempDir();
+      tempDir.deleteOnExit();
+      File subDir = new File(tempDir, "sub");
+      subDir.mkdir();
+      createTempFile(subDir, false);
+      createTempFile(tempDir, false);
+      FileResource<?> dirResource = resourceFactory.create(DirectoryResource.class, tempDir);
+      try
+      {
+         int count = 0;
+         Iterator<Resource<?>> iterator = new ResourceVisit(dirResource).iterator(ACCEPT_ALL, new ResourceFilter()
+         {
+            @Override
+            public boolean accept(Resource<?> resource)
+            {
+               return !(resource instanceof DirectoryResource);
+            }
+         });
+         while (iterator.hasNext())
+         {
+            Assert.assertFalse(iterator.next() instanceof DirectoryResource);
+            count++;
+         }
+         Assert.assertEquals(2, count);
+      }
+      finally
+      {
+         dirResource.delete(true);
+      }
+   }
+
+   private static final ResourceFilter ACCEPT_ALL = new ResourceFilter()
+   {
+      @Override
+      public boolean accept(Resource<?> resource)
+      {
+         return true;
+      }
+   };
+
    private File createTempFile(File tempDir, boolean delete) throws IOException
    {
       File file = File.createTempFile("fileresourcetest", ".tmp", tempDir);
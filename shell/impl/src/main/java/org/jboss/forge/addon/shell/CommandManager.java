@@ -1,7 +1,10 @@
 package org.jboss.forge.addon.shell;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -17,11 +20,12 @@ import org.jboss.forge.addon.shell.aesh.ShellWizard;
 import org.jboss.forge.addon.shell.ui.ShellContext;
 import org.jboss.forge.addon.shell.util.ShellUtil;
 import org.jboss.forge.addon.ui.UICommand;
-import org.jboss.forge.addon.ui.util.Commands;
 import org.jboss.forge.addon.ui.wizard.UIWizard;
+import org.jboss.forge.addon.ui.wizard.UIWizardStep;
 import org.jboss.forge.furnace.addons.AddonRegistry;
 import org.jboss.forge.furnace.event.PostStartup;
 import org.jboss.forge.furnace.event.PreShutdown;
+import org.jboss.forge.furnace.proxy.Proxies;
 import org.jboss.forge.furnace.services.Imported;
 
 /**
@@ -38,7 +42,7 @@ public class CommandManager
    private CommandLineUtil commandLineUtil;
    private ConverterFactory converterFactory;
 
-   private List<UICommand> commandCache;
+   private volatile Map<String, List<UICommand>> commandIndex;
 
    @Inject
    public CommandManager(final AddonRegistry addonRegistry)
@@ -48,12 +52,12 @@ public class CommandManager
 
    public void addonStarted(@Observes PostStartup event)
    {
-      commandCache = null;
+      commandIndex = null;
    }
 
    public void addonStopped(@Observes PreShutdown event)
    {
-      commandCache = null;
+      commandIndex = null;
    }
 
    public UICommand lookup(Class<? extends UICommand> type)
@@ -64,9 +68,16 @@ public class CommandManager
    public Set<String> getAllCommandNames(ShellContext shellContext)
    {
       Set<String> commands = new TreeSet<String>();
-      for (UICommand cmd : Commands.getEnabledCommands(getAllCommands(), shellContext))
+      for (Entry<String, List<UICommand>> entry : getCommandIndex(shellContext).entrySet())
       {
-         commands.add(getCommandName(shellContext, cmd));
+         for (UICommand cmd : entry.getValue())
+         {
+            if (cmd.isEnabled(shellContext))
+            {
+               commands.add(entry.getKey());
+               break;
+            }
+         }
       }
       return commands;
    }
@@ -74,11 +85,17 @@ public class CommandManager
    public AbstractShellInteraction findCommand(ShellContext shellContext, String commandName)
    {
       AbstractShellInteraction result = null;
+      List<UICommand> candidates = getCommandIndex(shellContext).get(commandName);
+      if (candidates == null)
+      {
+         return null;
+      }
       CommandLineUtil cmdLineUtil = getCommandLineUtil();
-      for (UICommand cmd : Commands.getEnabledCommands(getAllCommands(), shellContext))
+      for (UICommand candidate : candidates)
       {
-         if (commandName.equals(getCommandName(shellContext, cmd)))
+         if (candidate.isEnabled(shellContext))
          {
+            UICommand cmd = newInstance(candidate);
             if (cmd instanceof UIWizard)
             {
                result = new ShellWizard((UIWizard) cmd, shellContext, cmdLineUtil, this);
@@ -104,15 +121,54 @@ public class CommandManager
       {
          allCommands = addonRegistry.getServices(UICommand.class);
       }
-      if (commandCache == null)
+      return allCommands;
+   }
+
+   /**
+    * Returns a new instance of the given indexed {@link UICommand}, so that no input state is shared between executions.
+    */
+   @SuppressWarnings("unchecked")
+   private UICommand newInstance(UICommand cmd)
+   {
+      Class<? extends UICommand> type = (Class<? extends UICommand>) Proxies.unwrap(cmd).getClass();
+      Imported<? extends UICommand> instances = addonRegistry.getServices(type);
+      return instances.isUnsatisfied() ? cmd : instances.get();
+   }
+
+   /**
+    * Returns the shell names of all {@link UICommand} instances that are not a {@link UIWizardStep}, mapped to the
+    * commands declaring them in lookup order. Rebuilt only when an addon starts or stops.
+    */
+   private Map<String, List<UICommand>> getCommandIndex(ShellContext shellContext)
+   {
+      Map<String, List<UICommand>> index = commandIndex;
+      if (index == null)
       {
-         commandCache = new LinkedList<UICommand>();
-         for (UICommand command : allCommands)
+         synchronized (this)
          {
-            commandCache.add(command);
+            index = commandIndex;
+            if (index == null)
+            {
+               index = new HashMap<String, List<UICommand>>();
+               for (UICommand cmd : getAllCommands())
+               {
+                  if (!(cmd instanceof UIWizardStep))
+                  {
+                     String name = getCommandName(shellContext, cmd);
+                     List<UICommand> commands = index.get(name);
+                     if (commands == null)
+                     {
+                        commands = new ArrayList<UICommand>(1);
+                        index.put(name, commands);
+                     }
+                     commands.add(cmd);
+                  }
+               }
+               commandIndex = index;
+            }
          }
       }
-      return allCommands;
+      return index;
    }
 
    private CommandLineUtil getCommandLineUtil()
@@ -8,6 +8,7 @@ package org.jboss.forge.addon.shell;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.logging.Logger;
 
 import javax.annotation.PreDestroy;
 import javax.enterprise.inject.Vetoed;
@@ -24,6 +25,7 @@ import org.jboss.aesh.terminal.Color;
 import org.jboss.aesh.terminal.TerminalCharacter;
 import org.jboss.aesh.terminal.TerminalColor;
 import org.jboss.forge.addon.resource.FileResource;
+import org.jboss.forge.addon.resource.WriteStatistics;
 import org.jboss.forge.addon.shell.aesh.AbstractShellInteraction;
 import org.jboss.forge.addon.shell.aesh.ForgeCommandRegistry;
 import org.jboss.forge.addon.shell.aesh.ForgeManProvider;
@@ -48,6 +50,8 @@ import org.jboss.forge.furnace.util.Assert;
 @Vetoed
 public class ShellImpl implements Shell
 {
+   private static final Logger log = Logger.getLogger(ShellImpl.class.getName());
+
    private final List<CommandExecutionListener> listeners = new LinkedList<CommandExecutionListener>();
 
    private FileResource<?> currentResource;
@@ -123,6 +127,8 @@ public class ShellImpl implements Shell
    public Result execute(AbstractShellInteraction shellCommand)
    {
       Result result = null;
+      long written = WriteStatistics.getWritten();
+      long skipped = WriteStatistics.getSkipped();
       try
       {
          firePreCommandListeners(shellCommand);
@@ -135,6 +141,16 @@ public class ShellImpl implements Shell
          e.printStackTrace();
          result = Results.fail(e.getMessage(), e);
       }
+      finally
+      {
+         written = WriteStatistics.getWritten() - written;
+         skipped = WriteStatistics.getSkipped() - skipped;
+         if (written + skipped > 0)
+         {
+            log.info("Command [" + shellCommand.getName() + "] wrote " + written + " generated file(s) and skipped "
+                     + skipped + " unchanged file(s)");
+         }
+      }
       return result;
    }
 
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2013 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Eclipse Public License version 1.0, available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.jboss.forge.addon.templates;
+
+import java.nio.charset.Charset;
+
+import org.jboss.forge.addon.resource.FileResource;
+import org.jboss.forge.addon.resource.Resource;
+import org.jboss.forge.furnace.util.Assert;
+
+/**
+ * A single rendering of a template with a data model into a target {@link FileResource}, to be processed in a batch by
+ * {@link TemplateProcessorFactory#processAll(Iterable)}
+ */
+public class TemplateJob
+{
+   private final Resource<?> template;
+   private final Object dataModel;
+   private final FileResource<?> output;
+   private final Charset charset;
+
+   public TemplateJob(Resource<?> template, Object dataModel, FileResource<?> output)
+   {
+      this(template, dataModel, output, Charset.defaultCharset());
+   }
+
+   public TemplateJob(Resource<?> template, Object dataModel, FileResource<?> output, Charset charset)
+   {
+      Assert.notNull(template, "Template resource cannot be null");
+      Assert.notNull(output, "Output resource cannot be null");
+      Assert.notNull(charset, "Charset cannot be null");
+      this.template = template;
+      this.dataModel = dataModel;
+      this.output = output;
+      this.charset = charset;
+   }
+
+   public Resource<?> getTemplate()
+   {
+      return template;
+   }
+
+   public Object getDataModel()
+   {
+      return dataModel;
+   }
+
+   public FileResource<?> getOutput()
+   {
+      return output;
+   }
+
+   public Charset getCharset()
+   {
+      return charset;
+   }
+
+   @Override
+   public String toString()
+   {
+      return template + " -> " + output;
+   }
+}
@@ -8,6 +8,9 @@ package org.jboss.forge.addon.templates;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.charset.Charset;
+
+import org.jboss.forge.addon.resource.FileResource;
 
 /**
  * Process a template
@@ -25,4 +28,16 @@ public interface TemplateProcessor
     * Writes the output to the {@link Writer}
     */
    void process(Object dataModel, Writer output) throws IOException;
+
+   /**
+    * Writes the output to the {@link FileResource} using the platform default encoding, creating it if it does not
+    * exist
+    */
+   void process(Object dataModel, FileResource<?> output) throws IOException;
+
+   /**
+    * Writes the output to the {@link FileResource} using the given {@link Charset}, creating it if it does not exist.
+    * The {@link FileResource} is left untouched if the template fails.
+    */
+   void process(Object dataModel, FileResource<?> output, Charset charset) throws IOException;
 }
@@ -6,6 +6,8 @@
  */
 package org.jboss.forge.addon.templates;
 
+import java.io.IOException;
+
 import org.jboss.forge.addon.resource.Resource;
 
 /**
@@ -16,4 +18,11 @@ import org.jboss.forge.addon.resource.Resource;
 public interface TemplateProcessorFactory
 {
    TemplateProcessor fromTemplate(Resource<?> template);
+
+   /**
+    * Renders each {@link TemplateJob} straight into its output {@link org.jboss.forge.addon.resource.FileResource},
+    * using a bounded pool of worker threads, and returns once every job has completed. If any job fails, the first
+    * failure is thrown after the remaining jobs have completed.
+    */
+   void processAll(Iterable<TemplateJob> jobs) throws IOException;
 }
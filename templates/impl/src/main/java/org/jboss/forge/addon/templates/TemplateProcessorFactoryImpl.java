@@ -7,23 +7,48 @@
 
 package org.jboss.forge.addon.templates;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.jboss.forge.addon.resource.Resource;
+import org.jboss.forge.addon.resource.transaction.ResourceTransaction;
+import org.jboss.forge.furnace.container.cdi.events.Local;
+import org.jboss.forge.furnace.event.PreShutdown;
 import org.jboss.forge.furnace.services.Imported;
 import org.jboss.forge.furnace.util.Assert;
 
 /**
+ * Creates {@link TemplateProcessor} instances, and renders batches of {@link TemplateJob} on a pool whose size is given
+ * by the system property {@value #THREADS_PROPERTY} (defaults to the number of available processors). Batches writing
+ * to resources of a started {@link ResourceTransaction} are rendered on the calling thread, as the transaction is not
+ * shared across threads.
  * 
  * @author <a href="ggastald@redhat.com">George Gastaldi</a>
  */
 @Singleton
 public class TemplateProcessorFactoryImpl implements TemplateProcessorFactory
 {
+   static final String THREADS_PROPERTY = "forge.template.threads";
+
    @Inject
    private Imported<TemplateGenerator> generators;
 
+   private ExecutorService executor;
+
    @Override
    public TemplateProcessor fromTemplate(Resource<?> template)
    {
@@ -38,4 +63,124 @@ public class TemplateProcessorFactoryImpl implements TemplateProcessorFactory
       }
       throw new IllegalStateException("No generator found for [" + template + "]");
    }
+
+   @Override
+   public void processAll(Iterable<TemplateJob> jobs) throws IOException
+   {
+      Assert.notNull(jobs, "Template jobs cannot be null");
+      Map<String, TemplateProcessor> processors = new HashMap<String, TemplateProcessor>();
+      List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+      boolean transactional = false;
+      for (final TemplateJob job : jobs)
+      {
+         String key = job.getTemplate().getFullyQualifiedName();
+         TemplateProcessor processor = processors.get(key);
+         if (processor == null)
+         {
+            processor = fromTemplate(job.getTemplate());
+            processors.put(key, processor);
+         }
+         transactional |= job.getOutput().getResourceFactory().getTransaction().isStarted();
+
+         final TemplateProcessor jobProcessor = processor;
+         tasks.add(new Callable<Void>()
+         {
+            @Override
+            public Void call() throws Exception
+            {
+               jobProcessor.process(job.getDataModel(), job.getOutput(), job.getCharset());
+               return null;
+            }
+         });
+      }
+
+      Throwable failure = null;
+      ExecutorService executor = transactional || tasks.size() < 2 ? null : getExecutor();
+      if (executor == null)
+      {
+         for (Callable<Void> task : tasks)
+         {
+            try
+            {
+               task.call();
+            }
+            catch (Exception e)
+            {
+               if (failure == null)
+                  failure = e;
+            }
+         }
+      }
+      else
+      {
+         try
+         {
+            for (Future<Void> future : executor.invokeAll(tasks))
+            {
+               try
+               {
+                  future.get();
+               }
+               catch (ExecutionException e)
+               {
+                  if (failure == null)
+                     failure = e.getCause();
+               }
+            }
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering templates");
+         }
+      }
+      if (failure != null)
+      {
+         rethrow(failure);
+      }
+   }
+
+   public synchronized void preShutdown(@Observes @Local PreShutdown event)
+   {
+      if (executor != null)
+      {
+         executor.shutdownNow();
+         executor = null;
+      }
+   }
+
+   private synchronized ExecutorService getExecutor()
+   {
+      int threads = Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+      if (threads <= 1)
+         return null;
+
+      if (executor == null)
+      {
+         executor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+         {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r)
+            {
+               Thread thread = new Thread(r, "Forge Template Processor " + count.incrementAndGet());
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
+      }
+      return executor;
+   }
+
+   private static void rethrow(Throwable cause) throws IOException
+   {
+      if (cause instanceof IOException)
+         throw (IOException) cause;
+      if (cause instanceof RuntimeException)
+         throw (RuntimeException) cause;
+      if (cause instanceof Error)
+         throw (Error) cause;
+      throw new IOException(cause);
+   }
 }
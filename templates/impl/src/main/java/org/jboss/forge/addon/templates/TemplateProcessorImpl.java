@@ -7,10 +7,17 @@
 
 package org.jboss.forge.addon.templates;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.Charset;
 
+import org.jboss.forge.addon.resource.FileResource;
 import org.jboss.forge.addon.resource.Resource;
 
 /**
@@ -43,4 +50,34 @@ public class TemplateProcessorImpl implements TemplateProcessor
    {
       generator.process(dataModel, resource, output);
    }
-}
\ No newline at end of file
+
+   @Override
+   public void process(Object dataModel, FileResource<?> output) throws IOException
+   {
+      process(dataModel, output, Charset.defaultCharset());
+   }
+
+   @Override
+   public void process(Object dataModel, FileResource<?> output, Charset charset) throws IOException
+   {
+      // Render to a temporary file first, so a failing template never leaves a partially written output
+      File temp = File.createTempFile("forge-template", ".tmp");
+      try
+      {
+         Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temp), charset));
+         try
+         {
+            process(dataModel, writer);
+         }
+         finally
+         {
+            writer.close();
+         }
+         output.setContents(new FileInputStream(temp));
+      }
+      finally
+      {
+         temp.delete();
+      }
+   }
+}
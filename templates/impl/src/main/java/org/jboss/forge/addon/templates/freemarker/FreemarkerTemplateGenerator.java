@@ -7,38 +7,64 @@
 
 package org.jboss.forge.addon.templates.freemarker;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
-import javax.inject.Inject;
+import javax.enterprise.event.Observes;
 import javax.inject.Singleton;
 
+import org.jboss.forge.addon.resource.FileResource;
 import org.jboss.forge.addon.resource.Resource;
 import org.jboss.forge.addon.templates.TemplateGenerator;
+import org.jboss.forge.furnace.container.cdi.events.Local;
+import org.jboss.forge.furnace.event.PreShutdown;
 
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 
 /**
  * A Freemarker implementation of a {@link TemplateGenerator}
- * 
+ *
+ * Compiled templates are cached by the fully qualified name of their {@link Resource}, and reused as long as the
+ * underlying file keeps the same modification time and size. The cache holds at most {@value #DEFAULT_CACHE_SIZE}
+ * templates, unless set otherwise with the system property {@value #CACHE_SIZE_PROPERTY}.
+ *
  * @author <a href="ggastald@redhat.com">George Gastaldi</a>
  */
 @Singleton
 public class FreemarkerTemplateGenerator implements TemplateGenerator
 {
+   static final String CACHE_SIZE_PROPERTY = "forge.template.cache.size";
+   static final int DEFAULT_CACHE_SIZE = 256;
+
    private freemarker.template.Configuration freemarkerConfig;
 
-   @Inject
-   private ResourceTemplateLoader loader;
+   private final Map<String, CompiledTemplate> templates = new LinkedHashMap<String, CompiledTemplate>(16, 0.75f,
+            true)
+   {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CompiledTemplate> eldest)
+      {
+         return size() > Integer.getInteger(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE);
+      }
+   };
+   private final AtomicLong hits = new AtomicLong();
+   private final AtomicLong misses = new AtomicLong();
 
    @Override
    public void process(Object dataModel, Resource<?> resource, Writer writer) throws IOException
    {
-      String id = loader.register(resource);
+      Template templateFile = getTemplate(resource);
       try
       {
-         Template templateFile = getFreemarkerConfig().getTemplate(id);
          templateFile.process(dataModel, writer);
          writer.flush();
       }
@@ -46,10 +72,6 @@ public class FreemarkerTemplateGenerator implements TemplateGenerator
       {
          throw new RuntimeException(e);
       }
-      finally
-      {
-         loader.dispose(id);
-      }
    }
 
    @Override
@@ -58,13 +80,101 @@ public class FreemarkerTemplateGenerator implements TemplateGenerator
       return true;
    }
 
-   public freemarker.template.Configuration getFreemarkerConfig()
+   public synchronized freemarker.template.Configuration getFreemarkerConfig()
    {
       if (freemarkerConfig == null)
       {
          freemarkerConfig = new freemarker.template.Configuration();
-         freemarkerConfig.setTemplateLoader(loader);
       }
       return freemarkerConfig;
    }
+
+   /**
+    * Returns how many templates were served from the cache without being parsed.
+    */
+   public long getCacheHits()
+   {
+      return hits.get();
+   }
+
+   /**
+    * Returns how many templates had to be parsed because they were not cached or had changed.
+    */
+   public long getCacheMisses()
+   {
+      return misses.get();
+   }
+
+   /**
+    * Returns the number of compiled templates currently cached.
+    */
+   public synchronized int getCacheSize()
+   {
+      return templates.size();
+   }
+
+   public synchronized void preShutdown(@Observes @Local PreShutdown event)
+   {
+      templates.clear();
+   }
+
+   private Template getTemplate(Resource<?> resource) throws IOException
+   {
+      String key = resource.getFullyQualifiedName();
+      long[] stamp = getStamp(resource);
+      CompiledTemplate cached;
+      synchronized (this)
+      {
+         cached = templates.get(key);
+      }
+      if (cached != null && cached.lastModified == stamp[0] && cached.length == stamp[1])
+      {
+         hits.incrementAndGet();
+         return cached.template;
+      }
+
+      misses.incrementAndGet();
+      freemarker.template.Configuration config = getFreemarkerConfig();
+      Reader reader = new InputStreamReader(resource.getResourceInputStream(),
+               config.getEncoding(config.getLocale()));
+      Template template;
+      try
+      {
+         template = new Template(key, reader, config);
+      }
+      finally
+      {
+         reader.close();
+      }
+
+      synchronized (this)
+      {
+         templates.put(key, new CompiledTemplate(template, stamp[0], stamp[1]));
+      }
+      return template;
+   }
+
+   private long[] getStamp(Resource<?> resource)
+   {
+      if (resource instanceof FileResource)
+      {
+         File file = ((FileResource<?>) resource).getUnderlyingResourceObject();
+         return new long[] { file.lastModified(), file.length() };
+      }
+      return new long[] { 0L, 0L };
+   }
+
+   private static class CompiledTemplate
+   {
+      private final Template template;
+      private final long lastModified;
+      private final long length;
+
+      public CompiledTemplate(Template template, long lastModified, long length)
+      {
+         this.template = template;
+         this.lastModified = lastModified;
+         this.length = length;
+      }
+   }
 }
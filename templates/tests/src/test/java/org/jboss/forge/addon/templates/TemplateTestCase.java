@@ -8,7 +8,10 @@ package org.jboss.forge.addon.templates;
 
 import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
@@ -104,4 +107,97 @@ public class TemplateTestCase
       String actual = processor.process(dataModel);
       Assert.assertEquals(expected, actual);
    }
-}
\ No newline at end of file
+
+   @Test
+   @SuppressWarnings("rawtypes")
+   public void testModifiedTemplateIsRecompiled() throws Exception
+   {
+      File tempFile = File.createTempFile("template", ".tmp");
+      tempFile.deleteOnExit();
+      FileResource resource = resourceFactory.create(tempFile).reify(FileResource.class);
+      resource.setContents("Hello ${name}!");
+      TemplateProcessor processor = templateProcessorFactory.fromTemplate(resource);
+      Map<String, String> dataModel = Collections.singletonMap("name", "JBoss Forge");
+      Assert.assertEquals("Hello JBoss Forge!", processor.process(dataModel));
+      Assert.assertEquals("Hello JBoss Forge!", processor.process(dataModel));
+
+      resource.setContents("Goodbye ${name}!");
+      Assert.assertEquals("Goodbye JBoss Forge!", processor.process(dataModel));
+   }
+
+   @Test
+   @SuppressWarnings("rawtypes")
+   public void testTemplatesWithSameNameDoNotCollide() throws Exception
+   {
+      File first = File.createTempFile("template", ".tmp");
+      first.deleteOnExit();
+      File secondDir = new File(first.getParentFile(), first.getName() + ".dir");
+      secondDir.mkdirs();
+      secondDir.deleteOnExit();
+      File second = new File(secondDir, first.getName());
+      second.deleteOnExit();
+
+      FileResource firstResource = resourceFactory.create(first).reify(FileResource.class);
+      firstResource.setContents("First ${name}");
+      FileResource secondResource = resourceFactory.create(second).reify(FileResource.class);
+      secondResource.setContents("Second ${name}");
+
+      Map<String, String> dataModel = Collections.singletonMap("name", "template");
+      Assert.assertEquals("First template", templateProcessorFactory.fromTemplate(firstResource).process(dataModel));
+      Assert.assertEquals("Second template", templateProcessorFactory.fromTemplate(secondResource).process(dataModel));
+   }
+
+   @Test
+   @SuppressWarnings("rawtypes")
+   public void testProcessAllWritesEachOutput() throws Exception
+   {
+      File tempFile = File.createTempFile("template", ".tmp");
+      tempFile.deleteOnExit();
+      FileResource template = resourceFactory.create(tempFile).reify(FileResource.class);
+      template.setContents("Hello ${name}!");
+
+      File outputDir = new File(tempFile.getParentFile(), tempFile.getName() + ".out");
+      outputDir.deleteOnExit();
+      List<TemplateJob> jobs = new ArrayList<TemplateJob>();
+      List<FileResource> outputs = new ArrayList<FileResource>();
+      for (int i = 0; i < 20; i++)
+      {
+         File outputFile = new File(outputDir, "output" + i + ".txt");
+         outputFile.deleteOnExit();
+         FileResource output = resourceFactory.create(outputFile).reify(FileResource.class);
+         outputs.add(output);
+         jobs.add(new TemplateJob(template, Collections.singletonMap("name", "Entity" + i), output));
+      }
+      templateProcessorFactory.processAll(jobs);
+
+      for (int i = 0; i < outputs.size(); i++)
+      {
+         Assert.assertEquals("Hello Entity" + i + "!", outputs.get(i).getContents());
+      }
+   }
+
+   @Test
+   @SuppressWarnings("rawtypes")
+   public void testFailingTemplateLeavesOutputUntouched() throws Exception
+   {
+      File tempFile = File.createTempFile("template", ".tmp");
+      tempFile.deleteOnExit();
+      FileResource template = resourceFactory.create(tempFile).reify(FileResource.class);
+      template.setContents("Hello ${name}! ${missing.value}");
+
+      File outputFile = File.createTempFile("output", ".txt");
+      outputFile.deleteOnExit();
+      FileResource output = resourceFactory.create(outputFile).reify(FileResource.class);
+      output.setContents("Original");
+      try
+      {
+         templateProcessorFactory.fromTemplate(template).process(Collections.singletonMap("name", "JBoss Forge"),
+                  output);
+         Assert.fail("Template should have failed");
+      }
+      catch (Exception expected)
+      {
+      }
+      Assert.assertEquals("Original", output.getContents());
+   }
+}
@@ -23,6 +23,10 @@ import org.jboss.forge.addon.ui.context.UIContext;
 import org.jboss.forge.addon.ui.context.UIContextListener;
 
 /**
+ * The {@link Context} of {@link CommandScoped} beans. Each thread initializing a {@link UIContext} is bound to it until
+ * it is destroyed, so that several {@link UIContext} instances may execute commands concurrently without sharing
+ * beans. A thread that did not initialize any {@link UIContext} may only use {@link CommandScoped} beans while a
+ * single {@link UIContext} is live, since it cannot tell which execution it belongs to otherwise.
  * 
  * @author <a href="ggastald@redhat.com">George Gastaldi</a>
  */
@@ -31,7 +35,15 @@ public class CommandScopedContext implements Context, UIContextListener
 {
    private final static String COMPONENT_MAP_NAME = CommandScopedContext.class.getName() + ".componentInstanceMap";
    private final static String CREATIONAL_MAP_NAME = CommandScopedContext.class.getName() + ".creationalInstanceMap";
-   private static final LinkedList<UIContext> CONTEXT_STACK = new LinkedList<UIContext>();
+   private static final LinkedList<UIContext> ACTIVE_CONTEXTS = new LinkedList<UIContext>();
+   private static final ThreadLocal<LinkedList<UIContext>> CONTEXT_STACK = new ThreadLocal<LinkedList<UIContext>>()
+   {
+      @Override
+      protected LinkedList<UIContext> initialValue()
+      {
+         return new LinkedList<UIContext>();
+      }
+   };
 
    @Override
    public Class<? extends Annotation> getScope()
@@ -42,21 +54,21 @@ public class CommandScopedContext implements Context, UIContextListener
    @Override
    public <T> T get(final Contextual<T> component)
    {
-      assertActive();
-      return (T) getComponentInstanceMap().get(component);
+      UIContext context = getActiveContext();
+      return (T) getComponentInstanceMap(context).get(component);
    }
 
    @Override
    public <T> T get(final Contextual<T> component, final CreationalContext<T> creationalContext)
    {
-      assertActive();
+      UIContext context = getActiveContext();
+      Map<Contextual<?>, Object> componentInstanceMap = getComponentInstanceMap(context);
 
-      T instance = get(component);
+      T instance = (T) componentInstanceMap.get(component);
 
       if (instance == null)
       {
-         Map<Contextual<?>, CreationalContext<?>> creationalContextMap = getCreationalContextMap();
-         Map<Contextual<?>, Object> componentInstanceMap = getComponentInstanceMap();
+         Map<Contextual<?>, CreationalContext<?>> creationalContextMap = getCreationalContextMap(context);
 
          synchronized (componentInstanceMap)
          {
@@ -77,25 +89,50 @@ public class CommandScopedContext implements Context, UIContextListener
       return instance;
    }
 
-   private void assertActive()
+   private UIContext getActiveContext()
    {
-      if (!isActive())
+      UIContext context = getCurrentContext();
+      if (context == null)
       {
+         synchronized (ACTIVE_CONTEXTS)
+         {
+            if (ACTIVE_CONTEXTS.size() > 1)
+            {
+               throw new ContextNotActiveException("Context with scope annotation @CommandScoped is ambiguous since "
+                        + ACTIVE_CONTEXTS.size() + " UICommands are in execution and none was started by thread ["
+                        + Thread.currentThread().getName() + "].");
+            }
+         }
          throw new ContextNotActiveException(
                   "Context with scope annotation @CommandScoped is not active since no UICommand is in execution.");
       }
+      return context;
    }
 
    private UIContext getCurrentContext()
    {
-      return CONTEXT_STACK.peek();
+      LinkedList<UIContext> stack = CONTEXT_STACK.get();
+      synchronized (ACTIVE_CONTEXTS)
+      {
+         // Contexts destroyed by another thread are still on this thread's stack
+         while (!stack.isEmpty() && !ACTIVE_CONTEXTS.contains(stack.peek()))
+         {
+            stack.pop();
+         }
+         if (!stack.isEmpty())
+            return stack.peek();
+         // Never guess between several executions
+         return ACTIVE_CONTEXTS.size() == 1 ? ACTIVE_CONTEXTS.peek() : null;
+      }
    }
 
    @SuppressWarnings({ "rawtypes" })
-   private void destroyCurrentContext()
+   private void destroyContext(UIContext context)
    {
-      Map<Contextual<?>, Object> componentInstanceMap = getComponentInstanceMap();
-      Map<Contextual<?>, CreationalContext<?>> creationalContextMap = getCreationalContextMap();
+      Map<Contextual<?>, Object> componentInstanceMap = (Map<Contextual<?>, Object>) context
+               .getAttribute(COMPONENT_MAP_NAME);
+      Map<Contextual<?>, CreationalContext<?>> creationalContextMap = (Map<Contextual<?>, CreationalContext<?>>) context
+               .getAttribute(CREATIONAL_MAP_NAME);
 
       if ((componentInstanceMap != null) && (creationalContextMap != null))
       {
@@ -113,46 +150,65 @@ public class CommandScopedContext implements Context, UIContextListener
    @Override
    public boolean isActive()
    {
-      return !CONTEXT_STACK.isEmpty();
+      return getCurrentContext() != null;
    }
 
    @Override
    public void contextInitialized(UIContext context)
    {
-      CONTEXT_STACK.push(context);
+      synchronized (ACTIVE_CONTEXTS)
+      {
+         ACTIVE_CONTEXTS.push(context);
+      }
+      CONTEXT_STACK.get().push(context);
    }
 
    @Override
    public void contextDestroyed(UIContext context)
    {
-      destroyCurrentContext();
-      CONTEXT_STACK.pop();
+      destroyContext(context);
+      synchronized (ACTIVE_CONTEXTS)
+      {
+         ACTIVE_CONTEXTS.remove(context);
+      }
+      LinkedList<UIContext> stack = CONTEXT_STACK.get();
+      stack.remove(context);
+      if (stack.isEmpty())
+      {
+         CONTEXT_STACK.remove();
+      }
    }
 
    /*
     * Helpers for manipulating the Component/Context maps.
     */
-   private Map<Contextual<?>, Object> getComponentInstanceMap()
+   private Map<Contextual<?>, Object> getComponentInstanceMap(UIContext context)
    {
-      ConcurrentHashMap<Contextual<?>, Object> map = (ConcurrentHashMap<Contextual<?>, Object>) getCurrentContext()
-               .getAttribute(COMPONENT_MAP_NAME);
-      if (map == null)
+      synchronized (context)
       {
-         map = new ConcurrentHashMap<Contextual<?>, Object>();
-         getCurrentContext().setAttribute(COMPONENT_MAP_NAME, map);
+         ConcurrentHashMap<Contextual<?>, Object> map = (ConcurrentHashMap<Contextual<?>, Object>) context
+                  .getAttribute(COMPONENT_MAP_NAME);
+         if (map == null)
+         {
+            map = new ConcurrentHashMap<Contextual<?>, Object>();
+            context.setAttribute(COMPONENT_MAP_NAME, map);
+         }
+         return map;
       }
-      return map;
    }
 
-   private Map<Contextual<?>, CreationalContext<?>> getCreationalContextMap()
+   private Map<Contextual<?>, CreationalContext<?>> getCreationalContextMap(UIContext context)
    {
-      Map<Contextual<?>, CreationalContext<?>> map = (ConcurrentHashMap<Contextual<?>, CreationalContext<?>>) getCurrentContext()
-               .getAttribute(CREATIONAL_MAP_NAME);
-      if (map == null)
+      synchronized (context)
       {
-         map = new ConcurrentHashMap<Contextual<?>, CreationalContext<?>>();
-         getCurrentContext().setAttribute(CREATIONAL_MAP_NAME, map);
+         Map<Contextual<?>, CreationalContext<?>> map = (ConcurrentHashMap<Contextual<?>, CreationalContext<?>>) context
+                  .getAttribute(CREATIONAL_MAP_NAME);
+         if (map == null)
+         {
+            map = new ConcurrentHashMap<Contextual<?>, CreationalContext<?>>();
+            context.setAttribute(CREATIONAL_MAP_NAME, map);
+         }
+         return map;
       }
-      return map;
    }
-}
\ No newline at end of file
+}
@@ -7,6 +7,14 @@
 
 package org.jboss.forge.addon.ui.scope;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import javax.inject.Inject;
 
 import org.jboss.arquillian.container.test.api.Deployment;
@@ -14,9 +22,11 @@ import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.forge.arquillian.AddonDependency;
 import org.jboss.forge.arquillian.Dependencies;
 import org.jboss.forge.arquillian.archive.ForgeArchive;
+import org.jboss.forge.furnace.addons.AddonRegistry;
 import org.jboss.forge.furnace.repositories.AddonDependencyEntry;
 import org.jboss.forge.furnace.services.Imported;
 import org.jboss.forge.ui.test.WizardTester;
+import org.jboss.forge.ui.test.WizardTesterFactory;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.junit.Assert;
 import org.junit.Test;
@@ -51,6 +61,9 @@ public class CommandScopedTest
    @Inject
    private WizardTester<WizardWithScopedObject> wizardTester;
 
+   @Inject
+   private AddonRegistry addonRegistry;
+
    @Test
    public void testCommandScope() throws Exception
    {
@@ -65,6 +78,83 @@ public class CommandScopedTest
       wizardTester.finish(null);
    }
 
+   @Test
+   public void testConcurrentCommandScopes() throws Exception
+   {
+      final CyclicBarrier started = new CyclicBarrier(3);
+      final CyclicBarrier checked = new CyclicBarrier(3);
+      ExecutorService executor = Executors.newFixedThreadPool(3);
+      try
+      {
+         Future<String> first = executor.submit(new ScopedExecution("First", started, checked));
+         Future<String> second = executor.submit(new ScopedExecution("Second", started, checked));
+         started.await(10, TimeUnit.SECONDS);
+
+         // Several executions are live: a thread that started none of them must not pick one
+         Future<String> unbound = executor.submit(new Callable<String>()
+         {
+            @Override
+            public String call() throws Exception
+            {
+               return modelInstance.get().getName();
+            }
+         });
+         try
+         {
+            unbound.get(10, TimeUnit.SECONDS);
+            Assert.fail("@CommandScoped should not be resolved from an unbound thread");
+         }
+         catch (ExecutionException expected)
+         {
+         }
+         checked.await(10, TimeUnit.SECONDS);
+
+         Assert.assertEquals("First", first.get(10, TimeUnit.SECONDS));
+         Assert.assertEquals("Second", second.get(10, TimeUnit.SECONDS));
+      }
+      finally
+      {
+         executor.shutdownNow();
+      }
+   }
+
+   /**
+    * Executes a wizard on the calling thread, checking that its {@link CommandScopedModel} is not shared.
+    */
+   private class ScopedExecution implements Callable<String>
+   {
+      private final String name;
+      private final CyclicBarrier started;
+      private final CyclicBarrier checked;
+
+      public ScopedExecution(String name, CyclicBarrier started, CyclicBarrier checked)
+      {
+         this.name = name;
+         this.started = started;
+         this.checked = checked;
+      }
+
+      @Override
+      public String call() throws Exception
+      {
+         WizardTester<?> tester = WizardTesterFactory.create(WizardWithScopedObject.class, addonRegistry);
+         try
+         {
+            tester.launch();
+            CommandScopedModel model = modelInstance.get();
+            model.setName(name);
+            started.await(10, TimeUnit.SECONDS);
+            String result = model.getName();
+            checked.await(10, TimeUnit.SECONDS);
+            return result;
+         }
+         finally
+         {
+            tester.finish(null);
+         }
+      }
+   }
+
    @Test
    @org.junit.Ignore("FORGE-1209")
    public void testImportedWithCustomScope() throws Exception